@@ -0,0 +1,82 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic calendars and meeting requests for benchmarks. The same seed always
+ * generates the same data so that runs can be compared with each other.
+ */
+public final class CalendarGenerator {
+  // Events are between 15 minutes and 2 hours long, in 15 minute steps.
+  private static final int EVENT_STEP = 15;
+  private static final int MAX_EVENT_STEPS = 8;
+
+  private final Random random;
+  private final int peopleCount;
+
+  /**
+   * Creates a generator that picks attendees out of {@code peopleCount} different people.
+   */
+  public CalendarGenerator(long seed, int peopleCount) {
+    if (peopleCount <= 0) {
+      throw new IllegalArgumentException("peopleCount must be positive");
+    }
+
+    this.random = new Random(seed);
+    this.peopleCount = peopleCount;
+  }
+
+  /**
+   * Returns {@code eventCount} events placed randomly over the day, each with
+   * {@code attendeesPerEvent} different attendees.
+   */
+  public List<Event> events(int eventCount, int attendeesPerEvent) {
+    List<Event> events = new ArrayList<>(eventCount);
+    for (int i = 0; i < eventCount; i++) {
+      int duration = EVENT_STEP * (1 + random.nextInt(MAX_EVENT_STEPS));
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration() - duration + 1);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          people(attendeesPerEvent)));
+    }
+    return events;
+  }
+
+  /**
+   * Returns a request for a meeting of {@code duration} minutes between {@code attendeeCount}
+   * different people.
+   */
+  public MeetingRequest request(int attendeeCount, int duration) {
+    return new MeetingRequest(people(attendeeCount), duration);
+  }
+
+  private Collection<String> people(int count) {
+    count = Math.min(count, peopleCount);
+    Collection<String> people = new LinkedHashSet<>();
+    while (people.size() < count) {
+      people.add(person(random.nextInt(peopleCount)));
+    }
+    return people;
+  }
+
+  private static String person(int id) {
+    return "Person " + id;
+  }
+}
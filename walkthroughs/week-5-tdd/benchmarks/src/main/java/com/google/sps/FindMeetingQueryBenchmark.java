@@ -0,0 +1,115 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency of {@code FindMeetingQuery.query} over synthetic calendars of different
+ * sizes. Run with {@code -prof gc} to also get the allocation rate per query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FindMeetingQueryBenchmark {
+  private static final long SEED = 20200101;
+
+  // The number of requests to rotate through, so that one lucky request doesn't skew the result.
+  private static final int REQUEST_COUNT = 64;
+
+  @Param({"100", "1000", "10000"})
+  public int eventCount;
+
+  @Param({"1", "5"})
+  public int attendeesPerEvent;
+
+  @Param({"3", "30"})
+  public int attendeesPerRequest;
+
+  @Param({"30", "120"})
+  public int duration;
+
+  @Param({"1000"})
+  public int peopleCount;
+
+  @Param({"SWEEP_LINE", "BITSET", "MINUTE_SCAN"})
+  public FindMeetingQuery.Strategy strategy;
+
+  private List<Event> events;
+  private AttendeeIndex index;
+  private PackedEventStore packed;
+  private MeetingRequest[] requests;
+  private MeetingRequest[] earliestRequests;
+  private FindMeetingQuery query;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    CalendarGenerator generator = new CalendarGenerator(SEED, peopleCount);
+    events = generator.events(eventCount, attendeesPerEvent);
+    index = AttendeeIndex.of(events);
+    packed = PackedEventStore.of(events);
+    requests = new MeetingRequest[REQUEST_COUNT];
+    earliestRequests = new MeetingRequest[REQUEST_COUNT];
+    for (int i = 0; i < REQUEST_COUNT; i++) {
+      requests[i] = generator.request(attendeesPerRequest, duration);
+      earliestRequests[i] = new MeetingRequest(requests[i].getAttendees(), duration);
+      earliestRequests[i].setMaxOptions(1);
+    }
+    query = new FindMeetingQuery(strategy);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> queryEvents() {
+    return query.query(events, nextRequest());
+  }
+
+  @Benchmark
+  public Collection<TimeRange> queryIndex() {
+    return query.query(index, nextRequest());
+  }
+
+  @Benchmark
+  public Collection<TimeRange> queryPacked() {
+    return query.query(packed, nextRequest());
+  }
+
+  @Benchmark
+  public Collection<TimeRange> queryIndexEarliest() {
+    next = (next + 1) % REQUEST_COUNT;
+    return query.query(index, earliestRequests[next]);
+  }
+
+  private MeetingRequest nextRequest() {
+    next = (next + 1) % REQUEST_COUNT;
+    return requests[next];
+  }
+}
@@ -0,0 +1,172 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only index over a collection of events. Every attendee is interned to a dense int id once,
+ * and each id maps to the merged, start-ordered ranges during which that attendee is busy. Queries
+ * can then look at the busy ranges of the requested attendees only, instead of every event.
+ */
+public final class AttendeeIndex {
+  /** Returned by {@code idOf} for people who are not part of any indexed event. */
+  public static final int UNKNOWN_ATTENDEE = -1;
+
+  private static final int[] NO_RANGES = new int[0];
+
+  private final Map<String, Integer> ids;
+  private final String[] names;
+
+  // For every attendee id, the busy ranges as {@code [start0, end0, start1, end1, ...]}. The
+  // ranges are sorted by start and never overlap or touch.
+  private final int[][] busy;
+
+  // The same busy ranges as a bit per minute, for queries that combine many attendees at once.
+  private final DayMask[] masks;
+
+  private AttendeeIndex(Map<String, Integer> ids, String[] names, int[][] busy) {
+    this.ids = ids;
+    this.names = names;
+    this.busy = busy;
+    this.masks = new DayMask[busy.length];
+    for (int id = 0; id < busy.length; id++) {
+      masks[id] = new DayMask();
+      for (int i = 0; i < busy[id].length; i += 2) {
+        masks[id].setBusy(busy[id][i], busy[id][i + 1]);
+      }
+    }
+  }
+
+  /**
+   * Builds an index over {@code events}. Must be non-null.
+   */
+  public static AttendeeIndex of(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+
+    Map<String, Integer> ids = new HashMap<>();
+    List<String> names = new ArrayList<>();
+    List<List<TimeRange>> ranges = new ArrayList<>();
+    for (Event event : events) {
+      for (String attendee : event.getAttendees()) {
+        Integer id = ids.get(attendee);
+        if (id == null) {
+          id = names.size();
+          ids.put(attendee, id);
+          names.add(attendee);
+          ranges.add(new ArrayList<TimeRange>());
+        }
+        ranges.get(id).add(event.getWhen());
+      }
+    }
+
+    int[][] busy = new int[names.size()][];
+    for (int id = 0; id < busy.length; id++) {
+      busy[id] = merge(ranges.get(id));
+    }
+
+    return new AttendeeIndex(ids, names.toArray(new String[0]), busy);
+  }
+
+  /**
+   * Returns the number of distinct attendees in this index. Ids run from 0 up to, but not
+   * including, this value.
+   */
+  public int size() {
+    return names.length;
+  }
+
+  /**
+   * Returns the id of {@code attendee}, or {@code UNKNOWN_ATTENDEE} if they are not part of any
+   * indexed event.
+   */
+  public int idOf(String attendee) {
+    Integer id = ids.get(attendee);
+    return id == null ? UNKNOWN_ATTENDEE : id;
+  }
+
+  /**
+   * Returns the name of the attendee with the given id.
+   */
+  public String nameOf(int id) {
+    return names[id];
+  }
+
+  /**
+   * Returns how many merged busy ranges the attendee with the given id has.
+   */
+  public int busyCount(int id) {
+    return busy[id].length / 2;
+  }
+
+  /**
+   * Returns the start of the {@code i}-th busy range of the attendee with the given id.
+   */
+  public int busyStart(int id, int i) {
+    return busy[id][2 * i];
+  }
+
+  /**
+   * Returns the exclusive end of the {@code i}-th busy range of the attendee with the given id.
+   */
+  public int busyEnd(int id, int i) {
+    return busy[id][2 * i + 1];
+  }
+
+  /**
+   * Returns the merged busy ranges of {@code attendee} as flat start/end pairs, which are empty for
+   * people who are not part of any indexed event. The array is shared, so callers must not change
+   * it.
+   */
+  int[] busyRangesOf(String attendee) {
+    int id = idOf(attendee);
+    return id == UNKNOWN_ATTENDEE ? NO_RANGES : busy[id];
+  }
+
+  /**
+   * Returns the occupancy mask of the attendee with the given id. The mask is shared, so callers
+   * must only read it, e.g. by OR-ing it into a mask of their own.
+   */
+  DayMask maskOf(int id) {
+    return masks[id];
+  }
+
+  /**
+   * Sorts {@code ranges} and collapses the ones that overlap or touch into flat start/end pairs.
+   */
+  private static int[] merge(List<TimeRange> ranges) {
+    ranges.sort(TimeRange.ORDER_BY_START);
+
+    int[] merged = new int[ranges.size() * 2];
+    int length = 0;
+    for (TimeRange range : ranges) {
+      if (length > 0 && range.start() <= merged[length - 1]) {
+        merged[length - 1] = Math.max(merged[length - 1], range.end());
+      } else {
+        merged[length++] = range.start();
+        merged[length++] = range.end();
+      }
+    }
+
+    return length == merged.length ? merged : Arrays.copyOf(merged, length);
+  }
+}
@@ -0,0 +1,147 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * How many of a group of attendees are busy during each bucket of the day, for meetings so large
+ * that no slot works for everyone. An attendee counts as busy in a bucket if any minute of it is
+ * busy. The counts are built with a difference array over the attendees' merged busy ranges, so
+ * building a heatmap takes time proportional to the number of ranges plus the number of buckets.
+ */
+public final class BusyHeatmap {
+  private static final int MINUTES = TimeRange.WHOLE_DAY.duration();
+
+  private final int bucketMinutes;
+  private final int attendeeCount;
+
+  // The number of busy attendees in every bucket.
+  private final int[] busy;
+
+  private BusyHeatmap(int bucketMinutes, int attendeeCount, int[] busy) {
+    this.bucketMinutes = bucketMinutes;
+    this.attendeeCount = attendeeCount;
+    this.busy = busy;
+  }
+
+  /**
+   * Builds the heatmap of {@code attendees} from {@code index}, with buckets of
+   * {@code bucketMinutes} minutes. The last bucket is cut short if the day doesn't divide evenly.
+   */
+  public static BusyHeatmap of(
+      AttendeeIndex index, Collection<String> attendees, int bucketMinutes) {
+    checkBucketMinutes(bucketMinutes);
+    Collection<String> distinct = new LinkedHashSet<>(attendees);
+    List<int[]> busyRanges = new ArrayList<>(distinct.size());
+    for (String attendee : distinct) {
+      busyRanges.add(index.busyRangesOf(attendee));
+    }
+    return build(busyRanges, bucketMinutes);
+  }
+
+  /**
+   * Same as {@code of(AttendeeIndex, Collection<String>, int)}, but built from the current state of
+   * {@code store}.
+   */
+  public static BusyHeatmap of(
+      CalendarStore store, Collection<String> attendees, int bucketMinutes) {
+    checkBucketMinutes(bucketMinutes);
+    return build(store.busyRangesOf(new LinkedHashSet<>(attendees)), bucketMinutes);
+  }
+
+  private static void checkBucketMinutes(int bucketMinutes) {
+    if (bucketMinutes <= 0 || bucketMinutes > MINUTES) {
+      throw new IllegalArgumentException("bucketMinutes must be between 1 and " + MINUTES);
+    }
+  }
+
+  /**
+   * Counts the busy attendees per bucket, given the merged, sorted busy ranges of every attendee
+   * as flat start/end pairs.
+   */
+  private static BusyHeatmap build(List<int[]> busyRanges, int bucketMinutes) {
+    int buckets = (MINUTES + bucketMinutes - 1) / bucketMinutes;
+
+    // Every attendee adds one from the first bucket they are busy in and takes it away again
+    // after the last one, so a running sum gives the count of each bucket.
+    int[] changes = new int[buckets + 1];
+    for (int[] ranges : busyRanges) {
+      // Two of an attendee's ranges can share a bucket, which must still only count them once.
+      int firstUncounted = 0;
+      for (int i = 0; i < ranges.length; i += 2) {
+        int start = Math.max(ranges[i], TimeRange.START_OF_DAY);
+        int end = Math.min(ranges[i + 1], MINUTES);
+        if (start >= end) {
+          continue;
+        }
+
+        int first = Math.max(start / bucketMinutes, firstUncounted);
+        int last = (end - 1) / bucketMinutes;
+        if (first <= last) {
+          changes[first]++;
+          changes[last + 1]--;
+          firstUncounted = last + 1;
+        }
+      }
+    }
+
+    int[] busy = new int[buckets];
+    int count = 0;
+    for (int bucket = 0; bucket < buckets; bucket++) {
+      count += changes[bucket];
+      busy[bucket] = count;
+    }
+    return new BusyHeatmap(bucketMinutes, busyRanges.size(), busy);
+  }
+
+  /**
+   * Returns the length of every bucket in minutes.
+   */
+  public int getBucketMinutes() {
+    return bucketMinutes;
+  }
+
+  /**
+   * Returns the number of distinct attendees the heatmap was built for.
+   */
+  public int getAttendeeCount() {
+    return attendeeCount;
+  }
+
+  /**
+   * Returns the number of buckets in the day.
+   */
+  public int size() {
+    return busy.length;
+  }
+
+  /**
+   * Returns the minute at which {@code bucket} starts.
+   */
+  public int bucketStart(int bucket) {
+    return bucket * bucketMinutes;
+  }
+
+  /**
+   * Returns how many of the attendees are busy at some point during {@code bucket}.
+   */
+  public int busyCount(int bucket) {
+    return busy[bucket];
+  }
+}
@@ -0,0 +1,30 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+
+/**
+ * Where the query engine gets busy time from. Sources only hand out the events of the attendees a
+ * request asks about, so the engine never has to filter through the whole calendar.
+ */
+public interface CalendarSource {
+  /**
+   * Returns the events that at least one of {@code attendees} takes part in and that overlap
+   * {@code window}. Events that don't take any time are left out, since they make nobody busy.
+   * The order of the returned events is unspecified.
+   */
+  Collection<Event> busyFor(Collection<String> attendees, TimeRange window);
+}
@@ -0,0 +1,396 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A mutable calendar that keeps every attendee's free time up to date as events are added and
+ * removed. Adding or removing an event only touches the free ranges of that event's attendees, and
+ * only within the event's time range, so queries just need to intersect precomputed free lists.
+ * The store is safe to use from multiple threads.
+ */
+public final class CalendarStore {
+  /**
+   * Gets told whenever the schedule of some attendees changed.
+   */
+  public interface Listener {
+    /**
+     * Called after an event of {@code attendees} was added or removed. Listeners are called on
+     * the thread that changed the calendar, after the change is visible to queries.
+     */
+    void onChange(Set<String> attendees);
+  }
+
+  private static final int[] WHOLE_DAY = {TimeRange.START_OF_DAY, TimeRange.WHOLE_DAY.end()};
+
+  /**
+   * The schedule of a single attendee.
+   */
+  private static final class Schedule {
+    // The busy ranges of the attendee's events, sorted by start. Ranges may overlap.
+    private final List<TimeRange> busy = new ArrayList<>();
+
+    // The merged free ranges of the attendee, from start to exclusive end.
+    private final NavigableMap<Integer, Integer> free = new TreeMap<>();
+
+    private Schedule() {
+      free.put(TimeRange.START_OF_DAY, TimeRange.WHOLE_DAY.end());
+    }
+  }
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, Schedule> schedules = new HashMap<>();
+
+  // How many copies of each event the store holds.
+  private final Map<Event, Integer> events = new HashMap<>();
+
+  private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+  public CalendarStore() {}
+
+  /**
+   * Creates a store that holds {@code events}.
+   */
+  public CalendarStore(Collection<Event> events) {
+    for (Event event : events) {
+      add(event);
+    }
+  }
+
+  /**
+   * Registers {@code listener} to be told about every change to the calendar.
+   */
+  public void addListener(Listener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Adds {@code event} to the calendar, making its attendees busy for its time range.
+   */
+  public void add(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    lock.writeLock().lock();
+    try {
+      events.merge(event, 1, Integer::sum);
+      TimeRange when = event.getWhen();
+      for (String attendee : event.getAttendees()) {
+        Schedule schedule = schedules.get(attendee);
+        if (schedule == null) {
+          schedule = new Schedule();
+          schedules.put(attendee, schedule);
+        }
+        insertBusy(schedule, when);
+        markBusy(schedule.free, when.start(), when.end());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    notifyListeners(event.getAttendees());
+  }
+
+  /**
+   * Removes one copy of {@code event} from the calendar. The attendees become free again for the
+   * parts of its time range that none of their other events cover. Returns whether the event was
+   * part of the calendar.
+   */
+  public boolean remove(Event event) {
+    if (!removeLocked(event)) {
+      return false;
+    }
+    notifyListeners(event.getAttendees());
+    return true;
+  }
+
+  private boolean removeLocked(Event event) {
+    lock.writeLock().lock();
+    try {
+      Integer count = events.get(event);
+      if (count == null) {
+        return false;
+      }
+      if (count == 1) {
+        events.remove(event);
+      } else {
+        events.put(event, count - 1);
+      }
+
+      TimeRange when = event.getWhen();
+      for (String attendee : event.getAttendees()) {
+        Schedule schedule = schedules.get(attendee);
+        schedule.busy.remove(when);
+        if (schedule.busy.isEmpty()) {
+          schedules.remove(attendee);
+        } else {
+          markFree(schedule, when.start(), when.end());
+        }
+      }
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void notifyListeners(Set<String> attendees) {
+    for (Listener listener : listeners) {
+      listener.onChange(attendees);
+    }
+  }
+
+  /**
+   * Returns whether {@code event} is part of the calendar.
+   */
+  public boolean contains(Event event) {
+    lock.readLock().lock();
+    try {
+      return events.containsKey(event);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the merged free ranges of {@code attendee}, in order.
+   */
+  public Collection<TimeRange> freeRangesOf(String attendee) {
+    lock.readLock().lock();
+    try {
+      Schedule schedule = schedules.get(attendee);
+      if (schedule == null) {
+        return Arrays.asList(TimeRange.WHOLE_DAY);
+      }
+
+      Collection<TimeRange> ranges = new ArrayList<>(schedule.free.size());
+      for (Map.Entry<Integer, Integer> range : schedule.free.entrySet()) {
+        ranges.add(TimeRange.fromStartEnd(range.getKey(), range.getValue(), false));
+      }
+      return ranges;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns whether {@code attendee} is free for all of [{@code start}, {@code end}).
+   */
+  boolean isFree(String attendee, int start, int end) {
+    lock.readLock().lock();
+    try {
+      Schedule schedule = schedules.get(attendee);
+      if (schedule == null) {
+        return true;
+      }
+      Map.Entry<Integer, Integer> range = schedule.free.floorEntry(start);
+      return range != null && range.getValue() >= end;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns, as flat start/end pairs, the time when all {@code mandatory} attendees are free and
+   * the time when the {@code optional} attendees are free as well. Both are taken from the same
+   * state of the calendar.
+   */
+  int[][] commonFreeRanges(Collection<String> mandatory, Collection<String> optional) {
+    lock.readLock().lock();
+    try {
+      int[] mandatoryFree = intersectAll(WHOLE_DAY, mandatory);
+      return new int[][] {mandatoryFree, intersectAll(mandatoryFree, optional)};
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the merged busy ranges of every one of {@code attendees}, as flat start/end pairs.
+   */
+  List<int[]> busyRangesOf(Collection<String> attendees) {
+    lock.readLock().lock();
+    try {
+      List<int[]> busyRanges = new ArrayList<>(attendees.size());
+      for (String attendee : attendees) {
+        Schedule schedule = schedules.get(attendee);
+        busyRanges.add(schedule == null ? new int[0] : complement(schedule.free));
+      }
+      return busyRanges;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Intersects {@code free} with the free ranges of every one of {@code attendees}. People
+   * without any events are free all day and don't change the result.
+   */
+  private int[] intersectAll(int[] free, Collection<String> attendees) {
+    for (String attendee : attendees) {
+      Schedule schedule = schedules.get(attendee);
+      if (schedule != null) {
+        free = intersect(free, schedule.free);
+      }
+    }
+    return free;
+  }
+
+  /**
+   * Returns the ranges that are in both {@code a}, given as flat start/end pairs, and {@code b}.
+   * Both inputs are sorted, so this is a single merge-like pass.
+   */
+  private static int[] intersect(int[] a, NavigableMap<Integer, Integer> b) {
+    int[] result = new int[a.length + 2 * b.size()];
+    int length = 0;
+    int i = 0;
+    Iterator<Map.Entry<Integer, Integer>> ranges = b.entrySet().iterator();
+    Map.Entry<Integer, Integer> range = ranges.hasNext() ? ranges.next() : null;
+    while (i < a.length && range != null) {
+      int start = Math.max(a[i], range.getKey());
+      int end = Math.min(a[i + 1], range.getValue());
+      if (start < end) {
+        result[length++] = start;
+        result[length++] = end;
+      }
+      // Move past whichever range ends first.
+      if (a[i + 1] < range.getValue()) {
+        i += 2;
+      } else {
+        range = ranges.hasNext() ? ranges.next() : null;
+      }
+    }
+    return Arrays.copyOf(result, length);
+  }
+
+  /**
+   * Returns the parts of the day that are not in {@code free}, as flat start/end pairs.
+   */
+  private static int[] complement(NavigableMap<Integer, Integer> free) {
+    int[] busy = new int[2 * (free.size() + 1)];
+    int length = 0;
+    int busyStart = TimeRange.START_OF_DAY;
+    for (Map.Entry<Integer, Integer> range : free.entrySet()) {
+      if (busyStart < range.getKey()) {
+        busy[length++] = busyStart;
+        busy[length++] = range.getKey();
+      }
+      busyStart = range.getValue();
+    }
+    if (busyStart < TimeRange.WHOLE_DAY.end()) {
+      busy[length++] = busyStart;
+      busy[length++] = TimeRange.WHOLE_DAY.end();
+    }
+    return Arrays.copyOf(busy, length);
+  }
+
+  /**
+   * Adds {@code when} to the busy ranges of {@code schedule}, keeping them sorted by start.
+   */
+  private static void insertBusy(Schedule schedule, TimeRange when) {
+    int index = schedule.busy.size();
+    while (index > 0 && schedule.busy.get(index - 1).start() > when.start()) {
+      index--;
+    }
+    schedule.busy.add(index, when);
+  }
+
+  /**
+   * Removes [{@code start}, {@code end}) from the free ranges in {@code free}.
+   */
+  private static void markBusy(NavigableMap<Integer, Integer> free, int start, int end) {
+    start = Math.max(start, TimeRange.START_OF_DAY);
+    end = Math.min(end, TimeRange.WHOLE_DAY.end());
+    if (start >= end) {
+      return;
+    }
+
+    // A free range that starts before the busy one may be cut short, or split in two.
+    Map.Entry<Integer, Integer> before = free.lowerEntry(start);
+    if (before != null && before.getValue() > start) {
+      free.put(before.getKey(), start);
+      if (before.getValue() > end) {
+        free.put(end, before.getValue());
+      }
+    }
+
+    // Free ranges that start within the busy one lose their beginning.
+    NavigableMap<Integer, Integer> inside = free.subMap(start, true, end, false);
+    Integer tailEnd = null;
+    if (!inside.isEmpty()) {
+      tailEnd = inside.lastEntry().getValue();
+      inside.clear();
+    }
+    if (tailEnd != null && tailEnd > end) {
+      free.put(end, tailEnd);
+    }
+  }
+
+  /**
+   * Adds back to the free ranges of {@code schedule} the parts of [{@code start}, {@code end})
+   * that none of its busy ranges cover anymore.
+   */
+  private static void markFree(Schedule schedule, int start, int end) {
+    start = Math.max(start, TimeRange.START_OF_DAY);
+    end = Math.min(end, TimeRange.WHOLE_DAY.end());
+
+    int freeStart = start;
+    for (TimeRange busy : schedule.busy) {
+      if (busy.start() >= end) {
+        break;
+      }
+      if (busy.end() > freeStart && busy.end() > busy.start()) {
+        addFree(schedule.free, freeStart, Math.min(busy.start(), end));
+        freeStart = Math.max(freeStart, busy.end());
+      }
+    }
+    addFree(schedule.free, freeStart, end);
+  }
+
+  /**
+   * Adds [{@code start}, {@code end}) to the free ranges in {@code free}, merging it with the
+   * ranges it touches.
+   */
+  private static void addFree(NavigableMap<Integer, Integer> free, int start, int end) {
+    if (start >= end) {
+      return;
+    }
+
+    Map.Entry<Integer, Integer> before = free.floorEntry(start);
+    if (before != null && before.getValue() >= start) {
+      start = before.getKey();
+      end = Math.max(end, before.getValue());
+    }
+    Map.Entry<Integer, Integer> after = free.ceilingEntry(start + 1);
+    while (after != null && after.getKey() <= end) {
+      end = Math.max(end, after.getValue());
+      free.remove(after.getKey());
+      after = free.ceilingEntry(start + 1);
+    }
+    free.put(start, end);
+  }
+}
@@ -0,0 +1,157 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Occupancy of a single day with one bit per minute. A set bit means someone is busy during that
+ * minute. Combining the schedules of many people is a word-wise OR, and the free time is whatever
+ * runs of clear bits are left.
+ */
+public final class DayMask {
+  private static final int MINUTES = TimeRange.WHOLE_DAY.duration();
+
+  /** The number of {@code long} words needed to hold one bit for every minute of the day. */
+  public static final int WORDS = (MINUTES + Long.SIZE - 1) / Long.SIZE;
+
+  private final long[] words = new long[WORDS];
+
+  /**
+   * Marks every minute of {@code range} as busy. The parts of the range that fall outside of the
+   * day are ignored.
+   */
+  public void setBusy(TimeRange range) {
+    setBusy(range.start(), range.end());
+  }
+
+  /**
+   * Marks the minutes from {@code start} (inclusive) to {@code end} (exclusive) as busy. The parts
+   * of the range that fall outside of the day are ignored.
+   */
+  public void setBusy(int start, int end) {
+    start = Math.max(start, TimeRange.START_OF_DAY);
+    end = Math.min(end, MINUTES);
+    if (start >= end) {
+      return;
+    }
+
+    int firstWord = start / Long.SIZE;
+    int lastWord = (end - 1) / Long.SIZE;
+    // Shifts only use the low six bits, so these are the masks from start and up to end.
+    long firstMask = -1L << start;
+    long lastMask = -1L >>> -end;
+    if (firstWord == lastWord) {
+      words[firstWord] |= firstMask & lastMask;
+      return;
+    }
+
+    words[firstWord] |= firstMask;
+    for (int i = firstWord + 1; i < lastWord; i++) {
+      words[i] = -1L;
+    }
+    words[lastWord] |= lastMask;
+  }
+
+  /**
+   * Returns whether {@code minute} has been marked as busy.
+   */
+  public boolean isBusy(int minute) {
+    if (minute < TimeRange.START_OF_DAY || minute >= MINUTES) {
+      return false;
+    }
+    return (words[minute / Long.SIZE] & (1L << minute)) != 0;
+  }
+
+  /**
+   * Marks every minute that is busy in {@code other} as busy in this mask too.
+   */
+  public void or(DayMask other) {
+    for (int i = 0; i < WORDS; i++) {
+      words[i] |= other.words[i];
+    }
+  }
+
+  /**
+   * Marks every minute of the day as free again so that the mask can be reused.
+   */
+  public void clear() {
+    Arrays.fill(words, 0L);
+  }
+
+  /**
+   * Returns every run of free minutes that is at least {@code duration} minutes long, in order.
+   */
+  public Collection<TimeRange> freeRanges(int duration) {
+    return freeRangeList(duration, Integer.MAX_VALUE).toTimeRanges();
+  }
+
+  /**
+   * Same as {@code freeRanges}, but returns packed ranges and stops after the first {@code limit}.
+   */
+  RangeList freeRangeList(int duration, int limit) {
+    // A zero minute meeting still needs a non-empty gap to happen in.
+    final int minimumGap = Math.max(duration, 1);
+    RangeList ranges = new RangeList();
+    int freeStart = nextFree(TimeRange.START_OF_DAY);
+    while (freeStart < MINUTES && ranges.size() < limit) {
+      int freeEnd = nextBusy(freeStart);
+      if (freeEnd - freeStart >= minimumGap) {
+        ranges.add(freeStart, freeEnd);
+      }
+      freeStart = nextFree(freeEnd);
+    }
+    return ranges;
+  }
+
+  /**
+   * Returns the first free minute at or after {@code from}, or the end of the day if there is none.
+   */
+  private int nextFree(int from) {
+    if (from >= MINUTES) {
+      return MINUTES;
+    }
+
+    int i = from / Long.SIZE;
+    long word = ~words[i] & (-1L << from);
+    while (word == 0) {
+      if (++i == WORDS) {
+        return MINUTES;
+      }
+      word = ~words[i];
+    }
+    return Math.min(i * Long.SIZE + Long.numberOfTrailingZeros(word), MINUTES);
+  }
+
+  /**
+   * Returns the first busy minute at or after {@code from}, or the end of the day if there is none.
+   */
+  private int nextBusy(int from) {
+    if (from >= MINUTES) {
+      return MINUTES;
+    }
+
+    int i = from / Long.SIZE;
+    long word = words[i] & (-1L << from);
+    while (word == 0) {
+      if (++i == WORDS) {
+        return MINUTES;
+      }
+      word = words[i];
+    }
+    return Math.min(i * Long.SIZE + Long.numberOfTrailingZeros(word), MINUTES);
+  }
+}
@@ -0,0 +1,98 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The multi-day counterpart of {@code Event}: a group of people that is busy during an
+ * {@code EpochRange}, which may span any number of days. Events are considered read-only.
+ */
+public final class EpochEvent {
+  private final String title;
+  private final EpochRange when;
+  private final Set<String> attendees = new HashSet<>();
+
+  /**
+   * Creates a new event.
+   *
+   * @param title The human-readable name for the event. Must be non-null.
+   * @param when The time when the event takes place. Must be non-null.
+   * @param attendees The collection of people attending the event. Must be non-null.
+   */
+  public EpochEvent(String title, EpochRange when, Collection<String> attendees) {
+    if (title == null) {
+      throw new IllegalArgumentException("title cannot be null");
+    }
+
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+
+    if (attendees == null) {
+      throw new IllegalArgumentException("attendees cannot be null. Use empty array instead.");
+    }
+
+    this.title = title;
+    this.when = when;
+    this.attendees.addAll(attendees);
+  }
+
+  /**
+   * Creates an event that takes place on the day {@code epochDay} at the time of {@code event}.
+   */
+  public static EpochEvent onDay(long epochDay, Event event) {
+    return new EpochEvent(
+        event.getTitle(), EpochRange.fromDay(epochDay, event.getWhen()), event.getAttendees());
+  }
+
+  /**
+   * Returns the human-readable name for this event.
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Returns the {@code EpochRange} for when this event occurs.
+   */
+  public EpochRange getWhen() {
+    return when;
+  }
+
+  /**
+   * Returns a read-only set of required attendees for this event.
+   */
+  public Set<String> getAttendees() {
+    return Collections.unmodifiableSet(attendees);
+  }
+
+  @Override
+  public int hashCode() {
+    return title.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof EpochEvent && equals(this, (EpochEvent) other);
+  }
+
+  private static boolean equals(EpochEvent a, EpochEvent b) {
+    return a.title.equals(b.title) && a.when.equals(b.when) && a.attendees.equals(b.attendees);
+  }
+}
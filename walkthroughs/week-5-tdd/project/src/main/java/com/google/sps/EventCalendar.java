@@ -0,0 +1,214 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Read-only calendar of {@code EpochEvent}s with no limit on how far it reaches. The events are
+ * kept in a centered interval tree, so looking up the events that overlap a window costs
+ * O(log n + k) for k matching events, no matter how much history the calendar holds. Recurring
+ * events are kept as rules and only expanded within the window of a lookup.
+ */
+public final class EventCalendar {
+  private static final Comparator<EpochEvent> ORDER_BY_START = new Comparator<EpochEvent>() {
+    @Override
+    public int compare(EpochEvent a, EpochEvent b) {
+      return EpochRange.ORDER_BY_START.compare(a.getWhen(), b.getWhen());
+    }
+  };
+
+  private static final Comparator<EpochEvent> ORDER_BY_END_DESCENDING =
+      new Comparator<EpochEvent>() {
+        @Override
+        public int compare(EpochEvent a, EpochEvent b) {
+          return EpochRange.ORDER_BY_END.compare(b.getWhen(), a.getWhen());
+        }
+      };
+
+  /**
+   * A node of the tree. Holds every event that contains {@code center}, once sorted by start and
+   * once by end, so that a lookup can stop scanning as soon as the events stop overlapping.
+   */
+  private static final class Node {
+    private final long center;
+    private final EpochEvent[] byStart;
+    private final EpochEvent[] byEndDescending;
+    private final Node left;
+    private final Node right;
+
+    private Node(long center, List<EpochEvent> events, Node left, Node right) {
+      this.center = center;
+      this.byStart = events.toArray(new EpochEvent[0]);
+      this.byEndDescending = events.toArray(new EpochEvent[0]);
+      Arrays.sort(byStart, ORDER_BY_START);
+      Arrays.sort(byEndDescending, ORDER_BY_END_DESCENDING);
+      this.left = left;
+      this.right = right;
+    }
+  }
+
+  private final Node root;
+  private final int size;
+  private final List<RecurringEvent> recurring;
+
+  private EventCalendar(Node root, int size, List<RecurringEvent> recurring) {
+    this.root = root;
+    this.size = size;
+    this.recurring = recurring;
+  }
+
+  /**
+   * Builds a calendar from {@code events}. Events without any duration can't make anyone busy and
+   * are left out.
+   */
+  public static EventCalendar of(Collection<EpochEvent> events) {
+    return of(events, Collections.<RecurringEvent>emptyList());
+  }
+
+  /**
+   * Builds a calendar from the one-off {@code events} and the {@code recurring} ones.
+   */
+  public static EventCalendar of(
+      Collection<EpochEvent> events, Collection<RecurringEvent> recurring) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+
+    if (recurring == null) {
+      throw new IllegalArgumentException("recurring cannot be null");
+    }
+
+    List<EpochEvent> sorted = new ArrayList<EpochEvent>(events.size());
+    for (EpochEvent event : events) {
+      if (event.getWhen().duration() > 0) {
+        sorted.add(event);
+      }
+    }
+    sorted.sort(ORDER_BY_START);
+    return new EventCalendar(
+        build(sorted), sorted.size(), new ArrayList<RecurringEvent>(recurring));
+  }
+
+  /**
+   * Returns the number of one-off events in the calendar.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of recurring events in the calendar.
+   */
+  public int recurringSize() {
+    return recurring.size();
+  }
+
+  /**
+   * Returns every event that overlaps {@code window}, including the occurrences of recurring
+   * events. Only the parts of the tree that can hold such events are visited.
+   */
+  public List<EpochEvent> overlapping(EpochRange window) {
+    List<EpochEvent> events = oneOffOverlapping(window);
+    for (RecurringEvent event : recurring) {
+      for (EpochRange occurrence : event.occurrences(window)) {
+        events.add(new EpochEvent(event.getTitle(), occurrence, event.getAttendees()));
+      }
+    }
+    return events;
+  }
+
+  /**
+   * Same as {@code overlapping}, but leaves out recurring events.
+   */
+  List<EpochEvent> oneOffOverlapping(EpochRange window) {
+    List<EpochEvent> events = new ArrayList<EpochEvent>();
+    if (window.duration() > 0) {
+      collect(root, window.start(), window.end(), events);
+    }
+    return events;
+  }
+
+  /**
+   * Returns the recurring events of the calendar. The list is shared, so callers must not change
+   * it.
+   */
+  List<RecurringEvent> recurring() {
+    return recurring;
+  }
+
+  /**
+   * Builds a subtree from {@code events}, which must be sorted by start. The center is the start
+   * of the median event, so that event always lands in this node and every level makes progress.
+   */
+  private static Node build(List<EpochEvent> events) {
+    if (events.isEmpty()) {
+      return null;
+    }
+
+    long center = events.get(events.size() / 2).getWhen().start();
+    List<EpochEvent> before = new ArrayList<EpochEvent>();
+    List<EpochEvent> containing = new ArrayList<EpochEvent>();
+    List<EpochEvent> after = new ArrayList<EpochEvent>();
+    for (EpochEvent event : events) {
+      if (event.getWhen().end() <= center) {
+        before.add(event);
+      } else if (event.getWhen().start() > center) {
+        after.add(event);
+      } else {
+        containing.add(event);
+      }
+    }
+
+    return new Node(center, containing, build(before), build(after));
+  }
+
+  /**
+   * Adds the events of {@code node} and its children that overlap [{@code from}, {@code to}).
+   */
+  private static void collect(Node node, long from, long to, List<EpochEvent> out) {
+    while (node != null) {
+      if (to <= node.center) {
+        // Every event here ends after the window starts, so it overlaps if it starts in time.
+        for (EpochEvent event : node.byStart) {
+          if (event.getWhen().start() >= to) {
+            break;
+          }
+          out.add(event);
+        }
+        node = node.left;
+      } else if (from > node.center) {
+        // Every event here starts before the window, so it overlaps if it ends late enough.
+        for (EpochEvent event : node.byEndDescending) {
+          if (event.getWhen().end() <= from) {
+            break;
+          }
+          out.add(event);
+        }
+        node = node.right;
+      } else {
+        // The window contains the center, and so does every event in this node.
+        out.addAll(Arrays.asList(node.byStart));
+        collect(node.left, from, to, out);
+        node = node.right;
+      }
+    }
+  }
+}
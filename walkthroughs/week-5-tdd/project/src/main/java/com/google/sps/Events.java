@@ -16,8 +16,13 @@
 package com.google.sps;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 
-public final class Events {
+/**
+ * A sample calendar, served as a {@code CalendarSource} through {@code SOURCE}.
+ */
+public final class Events implements CalendarSource {
   private static final String PERSON_AMELIA = "Amelia";
   private static final String PERSON_AVA = "Ava";
   private static final String PERSON_EMMA = "Emma";
@@ -132,7 +137,25 @@ public final class Events {
           Arrays.asList(PERSON_LIAM)),
   };
 
+  private static final InMemoryCalendarSource INDEX =
+      new InMemoryCalendarSource(Arrays.asList(events));
+
+  /** The sample calendar as a {@code CalendarSource}. */
+  public static final Events SOURCE = new Events();
+
   private Events() {
-    // Disallow instances.
+    // Use SOURCE instead.
+  }
+
+  @Override
+  public Collection<Event> busyFor(Collection<String> attendees, TimeRange window) {
+    return INDEX.busyFor(attendees, window);
+  }
+
+  /**
+   * Returns every event that overlaps {@code window}, ordered by start.
+   */
+  public List<Event> eventsDuring(TimeRange window) {
+    return INDEX.eventsDuring(window);
   }
 }
@@ -0,0 +1,79 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The options for a meeting request that was answered from several calendar sources, together
+ * with whether every source answered in time. An incomplete answer may offer times that the
+ * missing sources would have ruled out. Answers are read-only.
+ */
+public final class FanOutAnswer {
+  private final List<TimeRange> options;
+  private final boolean complete;
+
+  /**
+   * Creates a new answer.
+   *
+   * @param options The ranges in which the meeting can be held. Must be non-null.
+   * @param complete Whether every source contributed its events.
+   */
+  public FanOutAnswer(Collection<TimeRange> options, boolean complete) {
+    if (options == null) {
+      throw new IllegalArgumentException("options cannot be null");
+    }
+
+    this.options = new ArrayList<>(options);
+    this.complete = complete;
+  }
+
+  /**
+   * Returns a read-only list of the ranges in which the meeting can be held.
+   */
+  public List<TimeRange> getOptions() {
+    return Collections.unmodifiableList(options);
+  }
+
+  /**
+   * Returns whether every source answered. If not, the options only account for the events of
+   * the sources that did.
+   */
+  public boolean isComplete() {
+    return complete;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof FanOutAnswer && equals(this, (FanOutAnswer) other);
+  }
+
+  @Override
+  public int hashCode() {
+    return options.hashCode() * 31 + (complete ? 1 : 0);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s (%s)", options, complete ? "complete" : "incomplete");
+  }
+
+  private static boolean equals(FanOutAnswer a, FanOutAnswer b) {
+    return a.options.equals(b.options) && a.complete == b.complete;
+  }
+}
@@ -0,0 +1,155 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * {@code CalendarSource} that asks several other sources at once, for deployments where calendars
+ * live in different backends. Every lookup is sent to all sources concurrently on a shared
+ * executor, and the answers are handed over in the order they arrive. A source that fails or
+ * doesn't answer before the lookup's deadline is left out, so a slow backend degrades the answer
+ * instead of holding up the whole request.
+ */
+public final class FanOutCalendarSource implements CalendarSource {
+  private final List<CalendarSource> sources;
+  private final ExecutorService executor;
+  private final long timeoutNanos;
+
+  private final AtomicLong timeoutCount = new AtomicLong();
+  private final AtomicLong failureCount = new AtomicLong();
+
+  /**
+   * Creates a source that fans out to {@code sources} on {@code executor}. Every lookup has one
+   * overall deadline, {@code timeout} after it starts, shared by all sources and including the
+   * time spent in the consumer. Sources that answer late only get what is left of it. The
+   * executor is not shut down by this class.
+   */
+  public FanOutCalendarSource(
+      List<CalendarSource> sources, ExecutorService executor, long timeout, TimeUnit unit) {
+    if (sources == null) {
+      throw new IllegalArgumentException("sources cannot be null");
+    }
+
+    if (executor == null) {
+      throw new IllegalArgumentException("executor cannot be null");
+    }
+
+    if (timeout < 0) {
+      throw new IllegalArgumentException("timeout cannot be negative");
+    }
+
+    this.sources = new ArrayList<>(sources);
+    this.executor = executor;
+    this.timeoutNanos = unit.toNanos(timeout);
+  }
+
+  /**
+   * Returns an executor with {@code threads} daemon threads that queues at most
+   * {@code queueCapacity} lookups. Lookups that don't fit are rejected, and count as failed
+   * sources, rather than piling up behind a slow backend.
+   */
+  public static ExecutorService boundedExecutor(int threads, int queueCapacity) {
+    return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<Runnable>(queueCapacity), runnable -> {
+          Thread thread = new Thread(runnable, "calendar-fetch");
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  @Override
+  public Collection<Event> busyFor(Collection<String> attendees, TimeRange window) {
+    List<Event> result = new ArrayList<>();
+    fetch(attendees, window, result::addAll);
+    return result;
+  }
+
+  /**
+   * Looks up {@code attendees} in every source at once and passes each source's events to
+   * {@code consumer} as soon as they arrive. The consumer is always called on the calling thread,
+   * one source at a time. Returns whether every source answered; if not, the consumer only saw
+   * the events of the sources that did.
+   */
+  public boolean fetch(
+      Collection<String> attendees, TimeRange window, Consumer<Collection<Event>> consumer) {
+    long deadline = System.nanoTime() + timeoutNanos;
+    CompletionService<Collection<Event>> completions = new ExecutorCompletionService<>(executor);
+    List<Future<Collection<Event>>> pending = new ArrayList<>(sources.size());
+    boolean complete = true;
+    for (CalendarSource source : sources) {
+      try {
+        pending.add(completions.submit(() -> source.busyFor(attendees, window)));
+      } catch (RejectedExecutionException e) {
+        failureCount.incrementAndGet();
+        complete = false;
+      }
+    }
+
+    try {
+      for (int answered = 0; answered < pending.size(); answered++) {
+        Future<Collection<Event>> next =
+            completions.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        if (next == null) {
+          timeoutCount.addAndGet(pending.size() - answered);
+          return false;
+        }
+
+        try {
+          consumer.accept(next.get());
+        } catch (ExecutionException e) {
+          failureCount.incrementAndGet();
+          complete = false;
+        }
+      }
+      return complete;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      // Don't keep working on answers nobody is waiting for anymore.
+      for (Future<Collection<Event>> future : pending) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * Returns how many source lookups were given up on because they took too long.
+   */
+  public long getTimeoutCount() {
+    return timeoutCount.get();
+  }
+
+  /**
+   * Returns how many source lookups failed or couldn't be started.
+   */
+  public long getFailureCount() {
+    return failureCount.get();
+  }
+}
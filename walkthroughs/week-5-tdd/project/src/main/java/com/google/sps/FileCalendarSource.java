@@ -0,0 +1,98 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@code CalendarSource} backed by a JSON file holding an array of events, in the same format that
+ * {@code /get-events} returns. The file is streamed on every lookup and only the events of the
+ * requested attendees are kept, so memory use depends on the answer, not on the calendar size, and
+ * changes to the file are picked up right away.
+ */
+public final class FileCalendarSource implements CalendarSource {
+  private final Gson gson = new Gson();
+  private final Path path;
+
+  /**
+   * Creates a source that reads the events in {@code path}. Must be non-null.
+   */
+  public FileCalendarSource(Path path) {
+    if (path == null) {
+      throw new IllegalArgumentException("path cannot be null");
+    }
+    this.path = path;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws UncheckedIOException if the file can't be read
+   * @throws com.google.gson.JsonParseException if the file doesn't hold an array of events
+   * @throws IllegalArgumentException if an event in the file is missing a field
+   */
+  @Override
+  public Collection<Event> busyFor(Collection<String> attendees, TimeRange window) {
+    if (window.duration() <= 0) {
+      return new ArrayList<Event>();
+    }
+
+    Set<String> wanted = new HashSet<>(attendees);
+    List<Event> result = new ArrayList<>();
+    try (Reader file = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        JsonReader reader = new JsonReader(file)) {
+      reader.beginArray();
+      while (reader.hasNext()) {
+        Event event = read(reader);
+        if (event.getWhen().duration() > 0 && event.getWhen().overlaps(window)
+            && !Collections.disjoint(event.getAttendees(), wanted)) {
+          result.add(event);
+        }
+      }
+      reader.endArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not read events from " + path, e);
+    }
+    return result;
+  }
+
+  private Event read(JsonReader reader) {
+    JsonEvent parsed = gson.fromJson(reader, JsonEvent.class);
+    return new Event(parsed.title, parsed.when, parsed.attendees);
+  }
+
+  /**
+   * The fields of an event as they appear in the file. Gson fills them in without any checks, so
+   * events are built from this instead, letting the {@code Event} constructor validate them.
+   */
+  private static final class JsonEvent {
+    private String title;
+    private TimeRange when;
+    private List<String> attendees;
+  }
+}
@@ -13,111 +13,1509 @@
 // limitations under the License.
 
 package com.google.sps;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.ArrayList;
-import java.util.Set;
+import java.util.List;
+import java.util.Map;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
 
 public final class FindMeetingQuery {
   private static final int TIME_INCREMENT = 1;
 
+  // How a request involves an attendee. A mandatory role wins over an optional one.
+  private static final byte NOT_REQUESTED = 0;
+  private static final byte OPTIONAL = 1;
+  private static final byte MANDATORY = 2;
+
+  /**
+   * The algorithms that can be used to answer a query. Every strategy returns the same ranges for
+   * the same input, they only differ in how much work they do to find them.
+   */
+  public enum Strategy {
+    /** Probes every minute of the day against every event. */
+    MINUTE_SCAN,
+    /** Sorts the busy ranges of the requested attendees once and walks the gaps between them. */
+    SWEEP_LINE,
+    /** ORs together one bit-per-minute {@code DayMask} per attendee and scans for free runs. */
+    BITSET
+  }
+
+  private final Strategy strategy;
+
+  public FindMeetingQuery() {
+    this(Strategy.SWEEP_LINE);
+  }
+
+  public FindMeetingQuery(Strategy strategy) {
+    if (strategy == null) {
+      throw new IllegalArgumentException("strategy cannot be null");
+    }
+
+    this.strategy = strategy;
+  }
+
+  /**
+   * Returns the strategy this query uses to find meeting options.
+   */
+  public Strategy getStrategy() {
+    return strategy;
+  }
+
   /**
    * Return a collection of TimeRange objects representing the available times when
    * all attendees from request are available to meet.
    * events is a collect of Events of when at least one attendee is busy. The Events
    * in events can be considered busy times when the meeting can't be scheduled.
+   * If there are times when the optional attendees can attend as well, only those times are
+   * returned. Otherwise the times that work for the mandatory attendees are returned. A request
+   * with only optional attendees is treated as if they were all mandatory.
+   * If the request asks to maximize optional attendees, the times that fit the most of them are
+   * returned instead, see {@code queryWithCoverage}.
    */
   public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
     if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
       return new ArrayList<TimeRange>();
     }
 
-    Collection<TimeRange> meetingOptions;
-    meetingOptions = busyToFree(events, request);
-    meetingOptions = condenseTimeRanges(meetingOptions);
+    if (request.getMaximizeOptionalAttendees() && !request.getOptionalAttendees().isEmpty()) {
+      return rangesOf(queryWithCoverage(events, request), limitOf(request));
+    }
+
+    final int duration = (int) request.getDuration();
+    Collection<String> mandatory = request.getAttendees();
+    Collection<String> optional = request.getOptionalAttendees();
+
+    // Buffers and fragments are evaluated inside the sweep's merge, so requests with spacing are
+    // always swept.
+    if (strategy == Strategy.SWEEP_LINE || hasSpacing(request)) {
+      long[] busyRanges = new long[events.size() + offHoursCount(request)];
+      int length = addOffHours(request, busyRanges, 0);
+      for (Event event : events) {
+        // An event of a mandatory attendee blocks both answers, so only tag it once.
+        if (!Collections.disjoint(event.getAttendees(), mandatory)) {
+          busyRanges[length++] = packBusy(event.getWhen().start(), event.getWhen().end(), true);
+        } else if (!Collections.disjoint(event.getAttendees(), optional)) {
+          busyRanges[length++] = packBusy(event.getWhen().start(), event.getWhen().end(), false);
+        }
+      }
+      return sweepLine(busyRanges, length, request, limitOf(request)).toTimeRanges();
+    }
+
+    if (strategy == Strategy.BITSET) {
+      DayMask mandatoryBusy = new DayMask();
+      DayMask optionalBusy = new DayMask();
+      for (Event event : events) {
+        if (!Collections.disjoint(event.getAttendees(), mandatory)) {
+          mandatoryBusy.setBusy(event.getWhen());
+        } else if (!Collections.disjoint(event.getAttendees(), optional)) {
+          optionalBusy.setBusy(event.getWhen());
+        }
+      }
+      orOffHours(request, mandatoryBusy, optionalBusy);
+      RangeList meetingOptions = combineMasks(
+          mandatoryBusy, optionalBusy, duration, mandatory.isEmpty(), limitOf(request));
+      return meetingOptions.toTimeRanges();
+    }
+
+    return scanMinutes(events, request, limitOf(request)).toTimeRanges();
+  }
+
+  /**
+   * Same as {@code query(Collection<Event>, MeetingRequest)}, but only asks {@code source} for the
+   * events of the requested attendees, so the rest of the calendar is never loaded or filtered.
+   */
+  public Collection<TimeRange> query(CalendarSource source, MeetingRequest request) {
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return new ArrayList<TimeRange>();
+    }
+
+    Collection<String> everyone = new HashSet<String>(request.getAttendees());
+    everyone.addAll(request.getOptionalAttendees());
+    return query(source.busyFor(everyone, TimeRange.WHOLE_DAY), request);
+  }
+
+  /**
+   * Returns the options of {@code query(events, request)}, split up by which rooms in
+   * {@code rooms} are free during them and large enough for every mandatory and optional
+   * attendee. Options during which no such room is free are left out. Room bookings are events
+   * that list the room among their attendees, see {@code RoomIndex}.
+   */
+  public List<RoomOption> queryWithRooms(
+      Collection<Event> events, MeetingRequest request, RoomIndex rooms) {
+    Collection<String> everyone = new HashSet<String>(request.getAttendees());
+    everyone.addAll(request.getOptionalAttendees());
+    return rooms.roomsDuring(
+        query(events, request), (int) request.getDuration(), everyone.size());
+  }
+
+  /**
+   * Same as {@code query(CalendarSource, MeetingRequest)}, but merges the events of each backend
+   * into busy masks as soon as they arrive, instead of waiting for the slowest one first. Backends
+   * that fail or time out are left out, so the answer may offer times they would have ruled out,
+   * and says so through {@code FanOutAnswer.isComplete()}.
+   */
+  public FanOutAnswer query(FanOutCalendarSource source, MeetingRequest request) {
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return new FanOutAnswer(new ArrayList<TimeRange>(), true);
+    }
+
+    Collection<String> mandatory = request.getAttendees();
+    Collection<String> optional = request.getOptionalAttendees();
+    Collection<String> everyone = new HashSet<String>(mandatory);
+    everyone.addAll(optional);
+
+    // Masks can't widen busy time, so maximizing and spacing need all the events first.
+    if ((request.getMaximizeOptionalAttendees() && !optional.isEmpty()) || hasSpacing(request)) {
+      List<Event> events = new ArrayList<Event>();
+      boolean complete = source.fetch(everyone, TimeRange.WHOLE_DAY, events::addAll);
+      return new FanOutAnswer(query(events, request), complete);
+    }
+
+    DayMask mandatoryBusy = new DayMask();
+    DayMask optionalBusy = new DayMask();
+    boolean complete = source.fetch(everyone, TimeRange.WHOLE_DAY, events -> {
+      for (Event event : events) {
+        if (!Collections.disjoint(event.getAttendees(), mandatory)) {
+          mandatoryBusy.setBusy(event.getWhen());
+        } else if (!Collections.disjoint(event.getAttendees(), optional)) {
+          optionalBusy.setBusy(event.getWhen());
+        }
+      }
+    });
+    orOffHours(request, mandatoryBusy, optionalBusy);
+    RangeList meetingOptions = combineMasks(mandatoryBusy, optionalBusy,
+        (int) request.getDuration(), mandatory.isEmpty(), limitOf(request));
+    return new FanOutAnswer(meetingOptions.toTimeRanges(), complete);
+  }
+
+  /**
+   * Same as {@code query(Collection<Event>, MeetingRequest)}, but answered from a prebuilt
+   * {@code AttendeeIndex}. Only the busy ranges of the requested attendees are visited and nothing
+   * is allocated per minute, so this is the form to use when many requests share one calendar.
+   * The {@code BITSET} strategy ORs the attendees' precomputed masks, every other strategy sweeps
+   * over their busy ranges, since the index already holds them merged and sorted.
+   */
+  public Collection<TimeRange> query(AttendeeIndex index, MeetingRequest request) {
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return new ArrayList<TimeRange>();
+    }
+
+    if (request.getMaximizeOptionalAttendees() && !request.getOptionalAttendees().isEmpty()) {
+      return rangesOf(queryWithCoverage(index, request), limitOf(request));
+    }
+
+    final int duration = (int) request.getDuration();
+    Collection<String> mandatory = request.getAttendees();
+    Collection<String> optional = request.getOptionalAttendees();
+
+    if (strategy == Strategy.BITSET && !hasSpacing(request)) {
+      DayMask mandatoryBusy = new DayMask();
+      DayMask optionalBusy = new DayMask();
+      orMasks(index, mandatory, mandatoryBusy);
+      orMasks(index, optional, optionalBusy);
+      orOffHours(request, mandatoryBusy, optionalBusy);
+      RangeList meetingOptions = combineMasks(
+          mandatoryBusy, optionalBusy, duration, mandatory.isEmpty(), limitOf(request));
+      return meetingOptions.toTimeRanges();
+    }
+
+    int[] ids = new int[mandatory.size() + optional.size()];
+    int mandatoryCount = resolveIds(index, mandatory, ids, 0);
+    int idCount = resolveIds(index, optional, ids, mandatoryCount);
+
+    // The lazy sweep only walks the index, so working hours and spacing need the full sweep.
+    if (request.getMaxOptions() > 0 && request.getWorkingHours().isEmpty()
+        && !hasSpacing(request)) {
+      LazyOptions options =
+          new LazyOptions(index, ids, mandatoryCount, idCount, duration, mandatory.isEmpty());
+      RangeList meetingOptions = new RangeList(request.getMaxOptions());
+      while (meetingOptions.size() < request.getMaxOptions() && options.hasNext()) {
+        meetingOptions.add(options.nextRange());
+      }
+      return meetingOptions.toTimeRanges();
+    }
+
+    return sweepIndex(index, request, ids, mandatoryCount, idCount, limitOf(request))
+        .toTimeRanges();
+  }
+
+  /**
+   * Sweeps over the busy ranges of the first {@code idCount} attendees in {@code ids}, of which
+   * the first {@code mandatoryCount} are mandatory, and the time outside of everyone's working
+   * hours.
+   */
+  private static RangeList sweepIndex(AttendeeIndex index, MeetingRequest request, int[] ids,
+      int mandatoryCount, int idCount, int limit) {
+    int busyCount = offHoursCount(request);
+    for (int i = 0; i < idCount; i++) {
+      busyCount += index.busyCount(ids[i]);
+    }
+
+    long[] busyRanges = new long[busyCount];
+    int length = addOffHours(request, busyRanges, 0);
+    for (int i = 0; i < idCount; i++) {
+      for (int j = 0; j < index.busyCount(ids[i]); j++) {
+        busyRanges[length++] =
+            packBusy(index.busyStart(ids[i], j), index.busyEnd(ids[i], j), i < mandatoryCount);
+      }
+    }
+
+    return sweepLine(busyRanges, length, request, limit);
+  }
+
+  /**
+   * Returns the same options as {@code query(AttendeeIndex, MeetingRequest)}, earliest first, but
+   * only finds each one when it is asked for. A caller that stops after the first few options
+   * never pays for the rest of the day. The limit of the request is ignored, since the caller
+   * decides when to stop, and the options are always found with a sweep.
+   */
+  public Iterator<TimeRange> options(AttendeeIndex index, MeetingRequest request) {
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return Collections.<TimeRange>emptyIterator();
+    }
+
+    if (request.getMaximizeOptionalAttendees() && !request.getOptionalAttendees().isEmpty()) {
+      return rangesOf(queryWithCoverage(index, request), Integer.MAX_VALUE).iterator();
+    }
+
+    Collection<String> mandatory = request.getAttendees();
+    Collection<String> optional = request.getOptionalAttendees();
+    int[] ids = new int[mandatory.size() + optional.size()];
+    int mandatoryCount = resolveIds(index, mandatory, ids, 0);
+    int idCount = resolveIds(index, optional, ids, mandatoryCount);
+    if (!request.getWorkingHours().isEmpty() || hasSpacing(request)) {
+      return sweepIndex(index, request, ids, mandatoryCount, idCount, Integer.MAX_VALUE)
+          .toTimeRanges().iterator();
+    }
+    return new LazyOptions(index, ids, mandatoryCount, idCount, (int) request.getDuration(),
+        mandatory.isEmpty());
+  }
+
+  /**
+   * Same as {@code query(Collection<Event>, MeetingRequest)}, but runs directly on the primitive
+   * arrays of a {@code PackedEventStore}. The requested attendees are marked in a table indexed by
+   * attendee id, so checking an event is a few array reads instead of a set intersection. The
+   * {@code BITSET} strategy fills busy masks, every other strategy sweeps.
+   */
+  public Collection<TimeRange> query(PackedEventStore events, MeetingRequest request) {
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return new ArrayList<TimeRange>();
+    }
+
+    if (request.getMaximizeOptionalAttendees() && !request.getOptionalAttendees().isEmpty()) {
+      return rangesOf(queryWithCoverage(events, request), limitOf(request));
+    }
+
+    final int duration = (int) request.getDuration();
+    final boolean optionalOnly = request.getAttendees().isEmpty();
+    byte[] roles = new byte[events.attendeeCount()];
+    markRoles(events, request.getOptionalAttendees(), OPTIONAL, roles);
+    markRoles(events, request.getAttendees(), MANDATORY, roles);
+
+    int[] starts = events.starts();
+    int[] ends = events.ends();
+    int[] attendeeOffsets = events.attendeeOffsets();
+    int[] attendeeIds = events.attendeeIds();
+
+    if (strategy == Strategy.BITSET && !hasSpacing(request)) {
+      DayMask mandatoryBusy = new DayMask();
+      DayMask optionalBusy = new DayMask();
+      for (int i = 0; i < starts.length; i++) {
+        int role = roleOf(roles, attendeeIds, attendeeOffsets[i], attendeeOffsets[i + 1]);
+        if (role == MANDATORY) {
+          mandatoryBusy.setBusy(starts[i], ends[i]);
+        } else if (role == OPTIONAL) {
+          optionalBusy.setBusy(starts[i], ends[i]);
+        }
+      }
+      orOffHours(request, mandatoryBusy, optionalBusy);
+      RangeList meetingOptions =
+          combineMasks(mandatoryBusy, optionalBusy, duration, optionalOnly, limitOf(request));
+      return meetingOptions.toTimeRanges();
+    }
+
+    long[] busyRanges = new long[starts.length + offHoursCount(request)];
+    int length = addOffHours(request, busyRanges, 0);
+    for (int i = 0; i < starts.length; i++) {
+      int role = roleOf(roles, attendeeIds, attendeeOffsets[i], attendeeOffsets[i + 1]);
+      if (role != NOT_REQUESTED) {
+        busyRanges[length++] = packBusy(starts[i], ends[i], role == MANDATORY);
+      }
+    }
+    return sweepLine(busyRanges, length, request, limitOf(request)).toTimeRanges();
+  }
+
+  /**
+   * Answers every request in {@code requests} against the same {@code index} in parallel on the
+   * common fork-join pool. The answers are returned in the same order as the requests.
+   */
+  public List<Collection<TimeRange>> queryAll(AttendeeIndex index, List<MeetingRequest> requests) {
+    return queryAll(index, requests, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Same as {@code queryAll(AttendeeIndex, List<MeetingRequest>)}, but runs on {@code pool}.
+   */
+  public List<Collection<TimeRange>> queryAll(
+      AttendeeIndex index, List<MeetingRequest> requests, ForkJoinPool pool) {
+    return queryAll(request -> query(index, request), requests, pool);
+  }
+
+  /**
+   * Same as {@code queryAll(AttendeeIndex, List<MeetingRequest>)}, but answered from a
+   * {@code CalendarStore}.
+   */
+  public List<Collection<TimeRange>> queryAll(CalendarStore store, List<MeetingRequest> requests) {
+    return queryAll(request -> query(store, request), requests, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Answers every request in {@code requests} with {@code query} in parallel on {@code pool}. The
+   * answers are returned in the same order as the requests.
+   */
+  static List<Collection<TimeRange>> queryAll(
+      Function<MeetingRequest, Collection<TimeRange>> query, List<MeetingRequest> requests,
+      ForkJoinPool pool) {
+    List<Collection<TimeRange>> answers =
+        new ArrayList<Collection<TimeRange>>(Collections.nCopies(requests.size(), null));
+    MeetingRequest[] batch = requests.toArray(new MeetingRequest[0]);
+    pool.invoke(new BatchQuery(query, batch, answers, 0, batch.length));
+    return answers;
+  }
+
+  /**
+   * Answers the requests from {@code from} to {@code to} by splitting them in half until few
+   * enough are left to answer directly. Every answer is written to the slot of its request.
+   */
+  private static final class BatchQuery extends RecursiveAction {
+    // Below this many requests the cost of forking outweighs running them on one thread.
+    private static final int SEQUENTIAL_THRESHOLD = 8;
+
+    private final Function<MeetingRequest, Collection<TimeRange>> query;
+    private final MeetingRequest[] requests;
+    private final List<Collection<TimeRange>> answers;
+    private final int from;
+    private final int to;
+
+    private BatchQuery(Function<MeetingRequest, Collection<TimeRange>> query,
+        MeetingRequest[] requests, List<Collection<TimeRange>> answers, int from, int to) {
+      this.query = query;
+      this.requests = requests;
+      this.answers = answers;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= SEQUENTIAL_THRESHOLD) {
+        for (int i = from; i < to; i++) {
+          // Every task sets its own slots only, and the pool's join publishes them.
+          answers.set(i, query.apply(requests[i]));
+        }
+        return;
+      }
+
+      int middle = (from + to) >>> 1;
+      invokeAll(new BatchQuery(query, requests, answers, from, middle),
+          new BatchQuery(query, requests, answers, middle, to));
+    }
+  }
+
+  /**
+   * Same as {@code query(Collection<Event>, MeetingRequest)}, but answered from a
+   * {@code CalendarStore}, which keeps every attendee's free ranges up to date as the calendar
+   * changes. The query only intersects the free ranges of the requested attendees.
+   */
+  public Collection<TimeRange> query(CalendarStore store, MeetingRequest request) {
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return new ArrayList<TimeRange>();
+    }
+
+    if (request.getMaximizeOptionalAttendees() && !request.getOptionalAttendees().isEmpty()) {
+      return rangesOf(queryWithCoverage(store, request), limitOf(request));
+    }
+
+    // The gaps between the mandatory free ranges are busy for both answers, and the gaps between
+    // everyone's free ranges are busy for the everyone answer, so one sweep gives both.
+    int[][] free = withinWorkingHours(request,
+        store.commonFreeRanges(request.getAttendees(), request.getOptionalAttendees()));
+    long[] busyRanges = new long[(free[0].length + free[1].length) / 2 + 2];
+    int length = addGaps(free[0], true, busyRanges, 0);
+    length = addGaps(free[1], false, busyRanges, length);
+    return sweepLine(busyRanges, length, request, limitOf(request)).toTimeRanges();
+  }
+
+  /**
+   * Same as {@code queryWithCoverage(Collection<Event>, MeetingRequest)}, but answered from a
+   * {@code CalendarStore}.
+   */
+  public Collection<MeetingOption> queryWithCoverage(CalendarStore store, MeetingRequest request) {
+    return coverage(request,
+        withOffHours(request, request.getAttendees(), store.busyRangesOf(request.getAttendees())),
+        withOffHours(request, request.getOptionalAttendees(),
+            store.busyRangesOf(request.getOptionalAttendees())));
+  }
+
+  /**
+   * Packs the busy time between {@code freeRanges}, given as sorted flat start/end pairs, into
+   * {@code busyRanges} from {@code length} on, and returns the new length.
+   */
+  private static int addGaps(int[] freeRanges, boolean mandatory, long[] busyRanges, int length) {
+    int busyStart = TimeRange.START_OF_DAY;
+    for (int i = 0; i < freeRanges.length; i += 2) {
+      busyRanges[length++] = packBusy(busyStart, freeRanges[i], mandatory);
+      busyStart = freeRanges[i + 1];
+    }
+    busyRanges[length++] = packBusy(busyStart, TimeRange.WHOLE_DAY.end(), mandatory);
+    return length;
+  }
+
+  /**
+   * Returns the ranges within {@code horizon}, which may span many days, when the attendees of
+   * {@code request} can meet. Optional attendees are handled like in
+   * {@code query(Collection<Event>, MeetingRequest)}; maximizing them is only supported within a
+   * single day. Only the events that overlap the horizon are looked at, and recurring events are
+   * only expanded within it, so the size of the calendar's history doesn't matter. The meeting may
+   * be longer than a day. Buffers and fragments work like within a day, with the edges of the
+   * horizon in place of the edges of the day.
+   */
+  public Collection<EpochRange> query(
+      EventCalendar calendar, MeetingRequest request, EpochRange horizon) {
+    Collection<String> mandatory = request.getAttendees();
+    Collection<String> optional = request.getOptionalAttendees();
+    List<EpochRange> mandatoryBusy = new ArrayList<EpochRange>();
+    List<EpochRange> optionalBusy = new ArrayList<EpochRange>();
+    for (EpochEvent event : calendar.oneOffOverlapping(horizon)) {
+      if (!Collections.disjoint(event.getAttendees(), mandatory)) {
+        mandatoryBusy.add(event.getWhen());
+      } else if (!Collections.disjoint(event.getAttendees(), optional)) {
+        optionalBusy.add(event.getWhen());
+      }
+    }
+    // Only expand the recurring events of the requested attendees, and only within the horizon.
+    for (RecurringEvent event : calendar.recurring()) {
+      if (!Collections.disjoint(event.getAttendees(), mandatory)) {
+        mandatoryBusy.addAll(event.occurrences(horizon));
+      } else if (!Collections.disjoint(event.getAttendees(), optional)) {
+        optionalBusy.addAll(event.occurrences(horizon));
+      }
+    }
+    addOffHours(request, horizon, mandatoryBusy, optionalBusy);
+
+    return sweepLine(mandatoryBusy, optionalBusy, horizon, request, limitOf(request));
+  }
+
+  /**
+   * Returns the first {@code limit} options for {@code request} within {@code horizon}, between
+   * both {@code mandatoryBusy} and {@code optionalBusy} if there are any, and between
+   * {@code mandatoryBusy} only otherwise. Both lists are sorted and then walked together once,
+   * like the single day sweep, unless the request has no mandatory attendees to fall back to.
+   */
+  private static Collection<EpochRange> sweepLine(List<EpochRange> mandatoryBusy,
+      List<EpochRange> optionalBusy, EpochRange horizon, MeetingRequest request, int limit) {
+    mandatoryBusy.sort(EpochRange.ORDER_BY_START);
+    optionalBusy.sort(EpochRange.ORDER_BY_START);
+
+    final boolean optionalOnly = request.getAttendees().isEmpty();
+    EpochFreeMerge everyone = new EpochFreeMerge(horizon, request, limit);
+    EpochFreeMerge mandatoryOnly = new EpochFreeMerge(horizon, request, limit);
+    int m = 0;
+    int o = 0;
+    while ((m < mandatoryBusy.size() || o < optionalBusy.size()) && !everyone.isFull()) {
+      if (o == optionalBusy.size() || (m < mandatoryBusy.size()
+          && mandatoryBusy.get(m).start() <= optionalBusy.get(o).start())) {
+        EpochRange busy = mandatoryBusy.get(m++);
+        everyone.addBusy(busy);
+        mandatoryOnly.addBusy(busy);
+      } else {
+        everyone.addBusy(optionalBusy.get(o++));
+      }
+    }
+
+    Collection<EpochRange> meetingOptions = everyone.finish();
+    if (meetingOptions.isEmpty() && !optionalOnly) {
+      // The everyone sweep stopped early only if it was full, so the rest is mandatory time.
+      while (m < mandatoryBusy.size() && !mandatoryOnly.isFull()) {
+        mandatoryOnly.addBusy(mandatoryBusy.get(m++));
+      }
+      return mandatoryOnly.finish();
+    }
     return meetingOptions;
   }
 
+  /**
+   * Same as {@code FreeRangeMerge}, but for free ranges within a horizon that may span many days.
+   */
+  private static final class EpochFreeMerge {
+    private final EpochRange horizon;
+    private final long minimumGap;
+    private final long buffer;
+    private final long minimumFragment;
+    private final int limit;
+    private final List<EpochRange> freeRanges = new ArrayList<EpochRange>();
+    private long freeStart;
+
+    private EpochFreeMerge(EpochRange horizon, MeetingRequest request, int limit) {
+      this.horizon = horizon;
+      // A zero minute meeting still needs a non-empty gap to happen in.
+      this.minimumGap = Math.max(request.getDuration(), 1);
+      this.buffer = request.getBufferMinutes();
+      this.minimumFragment = request.getMinFragmentMinutes();
+      this.limit = limit;
+      this.freeStart = horizon.start();
+    }
+
+    private void addBusy(EpochRange busy) {
+      if (busy.duration() <= 0) {
+        // Empty ranges don't take up any minute, so they can't split a free range.
+        return;
+      }
+
+      // Widening every range by the same buffer keeps them in order of start.
+      long busyStart =
+          Math.min(Math.max(busy.start() - buffer, horizon.start()), horizon.end());
+      addFree(freeStart, busyStart);
+      freeStart = Math.max(freeStart, busy.end() + buffer);
+    }
+
+    /**
+     * Adds the options within the free range from {@code start} to {@code end}, following the
+     * same rules as {@code FreeRangeMerge.addFree}.
+     */
+    private void addFree(long start, long end) {
+      long slack = end - start - minimumGap;
+      if (slack < 0 || isFull()) {
+        return;
+      }
+
+      if (minimumFragment == 0 || slack == 0) {
+        freeRanges.add(EpochRange.fromStartEnd(start, end, false));
+        return;
+      }
+
+      if (slack < minimumFragment) {
+        // Wherever the meeting goes, it leaves a fragment on at least one side.
+        return;
+      }
+
+      freeRanges.add(EpochRange.fromStartDuration(start, minimumGap));
+      if (slack >= 2 * minimumFragment && !isFull()) {
+        freeRanges.add(
+            EpochRange.fromStartEnd(start + minimumFragment, end - minimumFragment, false));
+      }
+      if (!isFull()) {
+        freeRanges.add(EpochRange.fromStartEnd(end - minimumGap, end, false));
+      }
+    }
+
+    private boolean isFull() {
+      return freeRanges.size() >= limit;
+    }
+
+    private List<EpochRange> finish() {
+      addFree(freeStart, horizon.end());
+      freeStart = horizon.end();
+      return freeRanges;
+    }
+  }
+
+  /**
+   * Returns the times when all mandatory attendees and as many optional attendees as possible can
+   * meet, each with the number of optional attendees that fit. If every optional attendee fits
+   * somewhere, those times are returned. A request without mandatory attendees returns nothing
+   * if no optional attendee can make it either.
+   */
+  public Collection<MeetingOption> queryWithCoverage(
+      Collection<Event> events, MeetingRequest request) {
+    Collection<String> attendees = new HashSet<String>(request.getAttendees());
+    attendees.addAll(request.getOptionalAttendees());
+
+    Collection<Event> relevantEvents = new ArrayList<Event>();
+    for (Event event : events) {
+      if (!Collections.disjoint(event.getAttendees(), attendees)) {
+        relevantEvents.add(event);
+      }
+    }
+    return queryWithCoverage(AttendeeIndex.of(relevantEvents), request);
+  }
 
   /**
-   * Given a Collection of Events that represent when a user is unavailable, return a Collection of
-   * Events representing when a user is available. Each event in the returned Collection will have
-   * at least one attendee that can also be found in meetingRequest.getAttendees(). The start time
-   * of Events in the Collection returned whose start times are adjacent to each other will be
-   * separated by a time interval of meetingRequest.getDuration().
+   * Same as {@code queryWithCoverage(Collection<Event>, MeetingRequest)}, but answered from a
+   * prebuilt {@code AttendeeIndex}.
+   *
+   * <p>Instead of trying subsets of the optional attendees, this keeps two difference arrays over
+   * every possible meeting start. A busy range from s to e rules out the starts from s - duration
+   * + 1 to e, so each of an attendee's merged busy ranges adds one range of ruled-out starts.
+   * Because each attendee's ranges are merged first, nobody is counted twice for the same start.
+   * One prefix sum then gives, for every start, whether the mandatory attendees are free and how
+   * many optional attendees are not. This is O(busy ranges + minutes in a day).
    */
-  private static Collection<TimeRange> busyToFree(Collection<Event> busyEvents, MeetingRequest meetingRequest) {
-    Collection<TimeRange> availableTimeSlots = new ArrayList<TimeRange>(busyEvents.size() / 2);
-    final int eventDuration = (int)meetingRequest.getDuration();
+  public Collection<MeetingOption> queryWithCoverage(AttendeeIndex index, MeetingRequest request) {
+    List<int[]> mandatoryBusy = new ArrayList<int[]>();
+    List<int[]> optionalBusy = new ArrayList<int[]>();
+    for (String attendee : request.getAttendees()) {
+      mandatoryBusy.add(withOffHours(request, attendee, index.busyRangesOf(attendee)));
+    }
+    for (String attendee : request.getOptionalAttendees()) {
+      optionalBusy.add(withOffHours(request, attendee, index.busyRangesOf(attendee)));
+    }
+    return coverage(request, mandatoryBusy, optionalBusy);
+  }
 
-    // For every timeslot of a day,
-    for (int meetingTime = TimeRange.START_OF_DAY; meetingTime <= TimeRange.END_OF_DAY;
-        meetingTime += TIME_INCREMENT) {
-      // see if this time slot is a free time slot.
-      boolean allCanAttend = true;
-      TimeRange potentialMeeting = TimeRange.fromStartDuration(meetingTime, eventDuration);
-      for (Event event : busyEvents) {
-        Set<String> meetingAttendees = new HashSet<String>(meetingRequest.getAttendees());
-        meetingAttendees.retainAll(event.getAttendees()); // meetingAttendees ⋂ event
-        if (!meetingAttendees.isEmpty()) { // If someone from event is part of the meetingRequest.
-          if (potentialMeeting.overlaps(event.getWhen())) { // This timeslot is busy; skip.
-            allCanAttend = false;
-            break;
-          }
+  /**
+   * Same as {@code queryWithCoverage(Collection<Event>, MeetingRequest)}, but answered from a
+   * {@code PackedEventStore}. Only the busy ranges of the requested attendees are gathered and
+   * merged, in two passes over the arrays: one to count them and one to fill them in.
+   */
+  public Collection<MeetingOption> queryWithCoverage(
+      PackedEventStore events, MeetingRequest request) {
+    // Give every distinct requested attendee a slot to gather their busy ranges in.
+    int[] slots = new int[events.attendeeCount()];
+    Arrays.fill(slots, -1);
+    int slotCount = 0;
+    for (Collection<String> attendees :
+        Arrays.asList(request.getAttendees(), request.getOptionalAttendees())) {
+      for (String attendee : attendees) {
+        int id = events.idOf(attendee);
+        if (id != PackedEventStore.UNKNOWN_ATTENDEE && slots[id] < 0) {
+          slots[id] = slotCount++;
         }
       }
+    }
+
+    int[] starts = events.starts();
+    int[] ends = events.ends();
+    int[] attendeeOffsets = events.attendeeOffsets();
+    int[] attendeeIds = events.attendeeIds();
 
-      if (allCanAttend) {
-        availableTimeSlots.add(potentialMeeting);
+    int[] counts = new int[slotCount];
+    for (int id : attendeeIds) {
+      if (slots[id] >= 0) {
+        counts[slots[id]]++;
+      }
+    }
+    long[][] ranges = new long[slotCount][];
+    for (int slot = 0; slot < slotCount; slot++) {
+      ranges[slot] = new long[counts[slot]];
+      counts[slot] = 0;
+    }
+    for (int i = 0; i < starts.length; i++) {
+      for (int k = attendeeOffsets[i]; k < attendeeOffsets[i + 1]; k++) {
+        int slot = slots[attendeeIds[k]];
+        if (slot >= 0) {
+          ranges[slot][counts[slot]++] = PackedRange.fromStartEnd(starts[i], ends[i]);
+        }
       }
     }
 
-    return availableTimeSlots;
+    int[][] merged = new int[slotCount][];
+    for (int slot = 0; slot < slotCount; slot++) {
+      merged[slot] = merge(ranges[slot]);
+    }
+
+    List<int[]> mandatoryBusy = new ArrayList<int[]>();
+    List<int[]> optionalBusy = new ArrayList<int[]>();
+    for (String attendee : request.getAttendees()) {
+      mandatoryBusy.add(
+          withOffHours(request, attendee, busyRangesOf(events, attendee, slots, merged)));
+    }
+    for (String attendee : request.getOptionalAttendees()) {
+      optionalBusy.add(
+          withOffHours(request, attendee, busyRangesOf(events, attendee, slots, merged)));
+    }
+    return coverage(request, mandatoryBusy, optionalBusy);
+  }
+
+  private static int[] busyRangesOf(
+      PackedEventStore events, String attendee, int[] slots, int[][] merged) {
+    int id = events.idOf(attendee);
+    return id == PackedEventStore.UNKNOWN_ATTENDEE ? new int[0] : merged[slots[id]];
   }
 
   /**
-   * Given a Collection of TimeRanges, return a Collection of condensed TimeRanges.
-   * Ex: [[0, 30], [1, 31], [2, 32], [60, 90]] -> [[0, 32], [60, 90]]
+   * Sorts the packed {@code ranges} and collapses the ones that overlap or touch into flat
+   * start/end pairs.
    */
-  private static Collection<TimeRange> condenseTimeRanges(Collection<TimeRange> expandedTimeRanges) {
-    if (expandedTimeRanges.size() == 1) {
-      return expandedTimeRanges;
+  private static int[] merge(long[] ranges) {
+    Arrays.sort(ranges);
+
+    int[] merged = new int[ranges.length * 2];
+    int length = 0;
+    for (long range : ranges) {
+      int start = PackedRange.start(range);
+      int end = PackedRange.end(range);
+      if (length > 0 && start <= merged[length - 1]) {
+        merged[length - 1] = Math.max(merged[length - 1], end);
+      } else {
+        merged[length++] = start;
+        merged[length++] = end;
+      }
     }
+    return Arrays.copyOf(merged, length);
+  }
 
-    Collection<TimeRange> condensedTimeRanges = new ArrayList<TimeRange>();
-    
-    TimeRange[] timeRanges = expandedTimeRanges.toArray(new TimeRange[0]);
-    for (int i = 0; i < timeRanges.length; i++) {
-      TimeRange startChunk = timeRanges[i];
-      for (int j = i + 1; j < timeRanges.length; j++) {
-        // Start time discontinuity detected.
-        if (timeRanges[j].start() != timeRanges[j - 1].start() + TIME_INCREMENT) {
-          TimeRange condensed = 
-            TimeRange.fromStartEnd(startChunk.start(), timeRanges[j - 1].end(), false);
-          condensedTimeRanges.add(condensed);
+  /**
+   * Runs the coverage sweep of {@code queryWithCoverage} given the merged busy ranges, as flat
+   * start/end pairs, of every mandatory and every optional attendee.
+   */
+  private static Collection<MeetingOption> coverage(
+      MeetingRequest request, List<int[]> mandatoryRanges, List<int[]> optionalRanges) {
+    Collection<MeetingOption> meetingOptions = new ArrayList<MeetingOption>();
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return meetingOptions;
+    }
+
+    // A zero minute meeting still needs a non-empty gap to happen in.
+    final int minimumGap = Math.max((int) request.getDuration(), 1);
+    final int lastStart = TimeRange.WHOLE_DAY.end() - minimumGap;
+    int[] mandatoryBusy = new int[lastStart + 2];
+    int[] optionalBusy = new int[lastStart + 2];
+
+    final int buffer = request.getBufferMinutes();
+    for (int[] busyRanges : mandatoryRanges) {
+      addRuledOutStarts(busyRanges, minimumGap, buffer, mandatoryBusy);
+    }
+    for (int[] busyRanges : optionalRanges) {
+      addRuledOutStarts(busyRanges, minimumGap, buffer, optionalBusy);
+    }
+
+    // First find the best coverage, then collect every run of starts that reaches it.
+    final int optionalCount = request.getOptionalAttendees().size();
+    int bestCoverage = -1;
+    int mandatoryConflicts = 0;
+    int optionalConflicts = 0;
+    for (int start = 0; start <= lastStart; start++) {
+      mandatoryConflicts += mandatoryBusy[start];
+      optionalConflicts += optionalBusy[start];
+      if (mandatoryConflicts == 0) {
+        bestCoverage = Math.max(bestCoverage, optionalCount - optionalConflicts);
+      }
+    }
 
-          i = j - 1; // Cancel out the i++ at the end of the outter for loop.
+    if (bestCoverage < 0 || (bestCoverage == 0 && request.getAttendees().isEmpty())) {
+      return meetingOptions;
+    }
+
+    int runStart = -1;
+    mandatoryConflicts = 0;
+    optionalConflicts = 0;
+    for (int start = 0; start <= lastStart + 1; start++) {
+      boolean best = false;
+      if (start <= lastStart) {
+        mandatoryConflicts += mandatoryBusy[start];
+        optionalConflicts += optionalBusy[start];
+        best = mandatoryConflicts == 0 && optionalCount - optionalConflicts == bestCoverage;
+      }
+
+      if (best && runStart < 0) {
+        runStart = start;
+      } else if (!best && runStart >= 0) {
+        // The last start of the run is start - 1, so the meeting can run up to start - 1 + gap.
+        int runEnd = start - 1 + minimumGap;
+        TimeRange when = runEnd == TimeRange.WHOLE_DAY.end()
+            ? TimeRange.fromStartEnd(runStart, TimeRange.END_OF_DAY, true)
+            : TimeRange.fromStartEnd(runStart, runEnd, false);
+        meetingOptions.add(new MeetingOption(when, bestCoverage));
+        runStart = -1;
+      }
+    }
+
+    return meetingOptions;
+  }
+
+  /**
+   * Adds the meeting starts that one attendee's merged {@code busyRanges}, given as flat start/end
+   * pairs and widened by {@code buffer} on both sides, rule out to the difference array
+   * {@code ruledOut}.
+   */
+  private static void addRuledOutStarts(int[] busyRanges, int gap, int buffer, int[] ruledOut) {
+    final int lastStart = ruledOut.length - 2;
+    int previousTo = -1;
+    for (int i = 0; i < busyRanges.length; i += 2) {
+      int from = Math.max(busyRanges[i] - buffer - gap + 1, Math.max(previousTo, 0));
+      int to = Math.min(busyRanges[i + 1] + buffer, lastStart + 1);
+      // Ranges are merged, but widening them by the meeting length can make them overlap again,
+      // so start where the previous range stopped to count the attendee only once per start.
+      // Empty ranges don't take up any minute and so can't conflict with a meeting.
+      if (from < to && busyRanges[i] < busyRanges[i + 1]) {
+        ruledOut[from]++;
+        ruledOut[to]--;
+        previousTo = to;
+      }
+    }
+  }
+
+  /**
+   * Returns the time ranges of the first {@code limit} of {@code meetingOptions}.
+   */
+  private static Collection<TimeRange> rangesOf(
+      Collection<MeetingOption> meetingOptions, int limit) {
+    Collection<TimeRange> ranges = new ArrayList<TimeRange>(meetingOptions.size());
+    for (MeetingOption option : meetingOptions) {
+      if (ranges.size() == limit) {
+        break;
+      }
+      ranges.add(option.getWhen());
+    }
+    return ranges;
+  }
+
+  /**
+   * Returns how many options {@code request} asks for, with no limit meaning every option.
+   */
+  private static int limitOf(MeetingRequest request) {
+    return request.getMaxOptions() == 0 ? Integer.MAX_VALUE : request.getMaxOptions();
+  }
+
+  /**
+   * Writes the ids of the {@code attendees} that are part of {@code index} into {@code ids},
+   * starting at {@code offset}, and returns the offset after the last id written. People without
+   * any events are free all day and can't constrain the meeting, so they are skipped.
+   */
+  private static int resolveIds(
+      AttendeeIndex index, Collection<String> attendees, int[] ids, int offset) {
+    for (String attendee : attendees) {
+      int id = index.idOf(attendee);
+      if (id != AttendeeIndex.UNKNOWN_ATTENDEE) {
+        ids[offset++] = id;
+      }
+    }
+    return offset;
+  }
+
+  /**
+   * Marks every one of the {@code attendees} that is part of {@code events} with {@code role} in
+   * the table of {@code roles}, which is indexed by attendee id.
+   */
+  private static void markRoles(
+      PackedEventStore events, Collection<String> attendees, byte role, byte[] roles) {
+    for (String attendee : attendees) {
+      int id = events.idOf(attendee);
+      if (id != PackedEventStore.UNKNOWN_ATTENDEE) {
+        roles[id] = role;
+      }
+    }
+  }
+
+  /**
+   * Returns the strongest role among the attendee ids from {@code from} to {@code to}.
+   */
+  private static int roleOf(byte[] roles, int[] attendeeIds, int from, int to) {
+    int role = NOT_REQUESTED;
+    for (int k = from; k < to && role != MANDATORY; k++) {
+      role = Math.max(role, roles[attendeeIds[k]]);
+    }
+    return role;
+  }
+
+  /**
+   * ORs the precomputed mask of every one of the {@code attendees} that is part of {@code index}
+   * into {@code busy}.
+   */
+  private static void orMasks(AttendeeIndex index, Collection<String> attendees, DayMask busy) {
+    for (String attendee : attendees) {
+      int id = index.idOf(attendee);
+      if (id != AttendeeIndex.UNKNOWN_ATTENDEE) {
+        busy.or(index.maskOf(id));
+      }
+    }
+  }
+
+  /**
+   * Returns whether {@code request} asks for buffers or a minimum fragment around the meeting.
+   */
+  private static boolean hasSpacing(MeetingRequest request) {
+    return request.getBufferMinutes() > 0 || request.getMinFragmentMinutes() > 0;
+  }
+
+  /**
+   * Returns whether {@code attendee} is a mandatory attendee of {@code request}, as opposed to an
+   * optional one or somebody who isn't part of the request at all.
+   */
+  private static boolean isMandatory(MeetingRequest request, String attendee) {
+    return request.getAttendees().contains(attendee);
+  }
+
+  private static boolean isRequested(MeetingRequest request, String attendee) {
+    return isMandatory(request, attendee) || request.getOptionalAttendees().contains(attendee);
+  }
+
+  /**
+   * Returns how many ranges the time outside of the working hours of the attendees of
+   * {@code request} adds up to.
+   */
+  private static int offHoursCount(MeetingRequest request) {
+    int count = 0;
+    for (Map.Entry<String, WorkingHours> entry : request.getWorkingHours().entrySet()) {
+      if (isRequested(request, entry.getKey())) {
+        count += entry.getValue().offHoursRanges().length / 2;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Packs the time outside of the working hours of the attendees of {@code request} into
+   * {@code busyRanges}, starting at {@code length}, and returns the length after the last range
+   * written. The ranges are tagged with whether their attendee is mandatory, like events are.
+   */
+  private static int addOffHours(MeetingRequest request, long[] busyRanges, int length) {
+    for (Map.Entry<String, WorkingHours> entry : request.getWorkingHours().entrySet()) {
+      if (isRequested(request, entry.getKey())) {
+        boolean mandatory = isMandatory(request, entry.getKey());
+        int[] offHours = entry.getValue().offHoursRanges();
+        for (int i = 0; i < offHours.length; i += 2) {
+          busyRanges[length++] = packBusy(offHours[i], offHours[i + 1], mandatory);
+        }
+      }
+    }
+    return length;
+  }
+
+  /**
+   * Adds the time outside of the working hours of the attendees of {@code request} on every day
+   * that {@code horizon} touches to the multi-day busy ranges that match their role.
+   */
+  private static void addOffHours(MeetingRequest request, EpochRange horizon,
+      List<EpochRange> mandatoryBusy, List<EpochRange> optionalBusy) {
+    if (horizon.duration() <= 0) {
+      return;
+    }
+
+    long firstDay = Math.floorDiv(horizon.start(), EpochRange.MINUTES_PER_DAY);
+    long lastDay = Math.floorDiv(horizon.end() - 1, EpochRange.MINUTES_PER_DAY);
+    for (Map.Entry<String, WorkingHours> entry : request.getWorkingHours().entrySet()) {
+      if (!isRequested(request, entry.getKey())) {
+        continue;
+      }
+
+      boolean mandatory = isMandatory(request, entry.getKey());
+      int[] offHours = entry.getValue().offHoursRanges();
+      for (long day = firstDay; day <= lastDay; day++) {
+        long dayStart = day * EpochRange.MINUTES_PER_DAY;
+        for (int i = 0; i < offHours.length; i += 2) {
+          EpochRange range =
+              EpochRange.fromStartEnd(dayStart + offHours[i], dayStart + offHours[i + 1], false);
+          (mandatory ? mandatoryBusy : optionalBusy).add(range);
+        }
+      }
+    }
+  }
+
+  /**
+   * ORs the precomputed masks of the time outside of the working hours of the attendees of
+   * {@code request} into the busy mask that matches their role.
+   */
+  private static void orOffHours(
+      MeetingRequest request, DayMask mandatoryBusy, DayMask optionalBusy) {
+    for (Map.Entry<String, WorkingHours> entry : request.getWorkingHours().entrySet()) {
+      if (isMandatory(request, entry.getKey())) {
+        mandatoryBusy.or(entry.getValue().offHoursMask());
+      } else if (isRequested(request, entry.getKey())) {
+        optionalBusy.or(entry.getValue().offHoursMask());
+      }
+    }
+  }
+
+  /**
+   * Returns the merged busy ranges of {@code attendee}, given as flat start/end pairs, together
+   * with the time outside of their working hours.
+   */
+  private static int[] withOffHours(MeetingRequest request, String attendee, int[] busyRanges) {
+    WorkingHours hours = request.getWorkingHours().get(attendee);
+    if (hours == null) {
+      return busyRanges;
+    }
+
+    int[] offHours = hours.offHoursRanges();
+    long[] ranges = new long[(busyRanges.length + offHours.length) / 2];
+    int length = 0;
+    for (int i = 0; i < busyRanges.length; i += 2) {
+      ranges[length++] = PackedRange.fromStartEnd(busyRanges[i], busyRanges[i + 1]);
+    }
+    for (int i = 0; i < offHours.length; i += 2) {
+      ranges[length++] = PackedRange.fromStartEnd(offHours[i], offHours[i + 1]);
+    }
+    return merge(ranges);
+  }
+
+  /**
+   * Same as {@code withOffHours(MeetingRequest, String, int[])} for every one of
+   * {@code attendees}, given {@code busyRanges} in the same order.
+   */
+  private static List<int[]> withOffHours(
+      MeetingRequest request, Collection<String> attendees, List<int[]> busyRanges) {
+    if (request.getWorkingHours().isEmpty()) {
+      return busyRanges;
+    }
+
+    List<int[]> result = new ArrayList<int[]>(busyRanges.size());
+    Iterator<int[]> ranges = busyRanges.iterator();
+    for (String attendee : attendees) {
+      result.add(withOffHours(request, attendee, ranges.next()));
+    }
+    return result;
+  }
+
+  /**
+   * Narrows the time when the mandatory attendees are free and the time when everyone is free,
+   * given as flat start/end pairs in {@code free}, to the working hours of those attendees.
+   */
+  private static int[][] withinWorkingHours(MeetingRequest request, int[][] free) {
+    int[] mandatoryFree = free[0];
+    int[] everyoneFree = free[1];
+    for (Map.Entry<String, WorkingHours> entry : request.getWorkingHours().entrySet()) {
+      int[] working = entry.getValue().workingRanges();
+      if (isMandatory(request, entry.getKey())) {
+        mandatoryFree = intersect(mandatoryFree, working);
+        everyoneFree = intersect(everyoneFree, working);
+      } else if (isRequested(request, entry.getKey())) {
+        everyoneFree = intersect(everyoneFree, working);
+      }
+    }
+    return new int[][] {mandatoryFree, everyoneFree};
+  }
+
+  /**
+   * Returns the ranges that are in both {@code a} and {@code b}, which are sorted flat start/end
+   * pairs that don't overlap.
+   */
+  private static int[] intersect(int[] a, int[] b) {
+    int[] result = new int[a.length + b.length];
+    int length = 0;
+    int i = 0;
+    int j = 0;
+    while (i < a.length && j < b.length) {
+      int start = Math.max(a[i], b[j]);
+      int end = Math.min(a[i + 1], b[j + 1]);
+      if (start < end) {
+        result[length++] = start;
+        result[length++] = end;
+      }
+      // Move past whichever range ends first.
+      if (a[i + 1] < b[j + 1]) {
+        i += 2;
+      } else {
+        j += 2;
+      }
+    }
+    return Arrays.copyOf(result, length);
+  }
+
+  /**
+   * Picks the first {@code limit} options from the busy masks of the mandatory and the optional
+   * attendees. Note that {@code optionalBusy} is updated to hold everyone's busy time.
+   */
+  private static RangeList combineMasks(DayMask mandatoryBusy, DayMask optionalBusy, int duration,
+      boolean optionalOnly, int limit) {
+    optionalBusy.or(mandatoryBusy);
+    RangeList meetingOptions = optionalBusy.freeRangeList(duration, limit);
+    if (meetingOptions.isEmpty() && !optionalOnly) {
+      meetingOptions = mandatoryBusy.freeRangeList(duration, limit);
+    }
+    return meetingOptions;
+  }
+
+  /**
+   * Given the first {@code length} packed busy ranges in {@code busyRanges}, in any order, return
+   * the first {@code limit} options between them for {@code request}. The sweep sorts the ranges
+   * once and walks them a single time while tracking two free pointers: one for everyone and one
+   * for the mandatory attendees only. The second answer is used when the first is empty, unless
+   * the request has no mandatory attendees to fall back to. The walk stops as soon as everyone
+   * has {@code limit} options. This costs O(n log n) in the number of busy ranges instead of
+   * O(minutes * events).
+   */
+  private static RangeList sweepLine(
+      long[] busyRanges, int length, MeetingRequest request, int limit) {
+    // Packed ranges sort by start first, which is all the sweep needs.
+    Arrays.sort(busyRanges, 0, length);
+
+    final boolean optionalOnly = request.getAttendees().isEmpty();
+    FreeRangeMerge everyone = new FreeRangeMerge(request, limit);
+    FreeRangeMerge mandatoryOnly = new FreeRangeMerge(request, limit);
+    for (int i = 0; i < length && !everyone.isFull(); i++) {
+      long busy = PackedRange.unflagged(busyRanges[i]);
+      int busyStart = PackedRange.start(busy);
+      int busyEnd = PackedRange.end(busy);
+      everyone.addBusy(busyStart, busyEnd);
+      if (PackedRange.isFlagged(busyRanges[i])) {
+        mandatoryOnly.addBusy(busyStart, busyEnd);
+      }
+    }
+
+    RangeList everyoneOptions = everyone.finish();
+    return everyoneOptions.isEmpty() && !optionalOnly ? mandatoryOnly.finish() : everyoneOptions;
+  }
+
+  /**
+   * Turns busy ranges, fed in order of start, into the first {@code limit} maximal free ranges of
+   * the day between them that are long enough for a meeting. Busy ranges may overlap or nest.
+   * Every range is looked at once, so the work grows with the number of busy ranges, not with the
+   * minutes in a day.
+   */
+  private static final class FreeRangeMerge {
+    private final int minimumGap;
+    private final int buffer;
+    private final int minimumFragment;
+    private final int limit;
+    private final RangeList freeRanges = new RangeList();
+    private int freeStart = TimeRange.START_OF_DAY;
+
+    private FreeRangeMerge(int duration, int limit) {
+      this(duration, 0, 0, limit);
+    }
+
+    private FreeRangeMerge(MeetingRequest request, int limit) {
+      this((int) request.getDuration(), request.getBufferMinutes(),
+          request.getMinFragmentMinutes(), limit);
+    }
+
+    private FreeRangeMerge(int duration, int buffer, int minimumFragment, int limit) {
+      // A zero minute meeting still needs a non-empty gap to happen in.
+      this.minimumGap = Math.max(duration, 1);
+      this.buffer = buffer;
+      this.minimumFragment = minimumFragment;
+      this.limit = limit;
+    }
+
+    private void addBusy(int busyStart, int busyEnd) {
+      if (busyEnd <= busyStart) {
+        // Empty ranges don't take up any minute, so they can't split a free range.
+        return;
+      }
+
+      // Widening every range by the same buffer keeps them in order of start.
+      busyStart = Math.min(Math.max(busyStart - buffer, TimeRange.START_OF_DAY),
+          TimeRange.WHOLE_DAY.end());
+      busyEnd = Math.min(busyEnd + buffer, TimeRange.WHOLE_DAY.end());
+      addFree(freeStart, busyStart);
+      // Busy ranges may overlap or nest, so only ever move the free pointer forward.
+      freeStart = Math.max(freeStart, busyEnd);
+    }
+
+    /**
+     * Adds the options for a meeting within the free range from {@code start} to {@code end}.
+     * Without a minimum fragment, that is the whole range if the meeting fits. Otherwise the
+     * meeting may only sit flush against either end, or at least {@code minimumFragment} away
+     * from both, so every placement within an option is allowed.
+     */
+    private void addFree(int start, int end) {
+      int slack = end - start - minimumGap;
+      if (slack < 0 || isFull()) {
+        return;
+      }
+
+      if (minimumFragment == 0 || slack == 0) {
+        freeRanges.add(start, end);
+        return;
+      }
+
+      if (slack < minimumFragment) {
+        // Wherever the meeting goes, it leaves a fragment on at least one side.
+        return;
+      }
+
+      freeRanges.add(start, start + minimumGap);
+      if (slack >= 2 * minimumFragment && !isFull()) {
+        freeRanges.add(start + minimumFragment, end - minimumFragment);
+      }
+      if (!isFull()) {
+        freeRanges.add(end - minimumGap, end);
+      }
+    }
+
+    /**
+     * Returns whether the merge has found {@code limit} free ranges, so later ones are ignored.
+     */
+    private boolean isFull() {
+      return freeRanges.size() >= limit;
+    }
+
+    /**
+     * Closes the last free range at the end of the day and returns every free range, in order.
+     */
+    private RangeList finish() {
+      addFree(freeStart, TimeRange.WHOLE_DAY.end());
+      freeStart = TimeRange.WHOLE_DAY.end();
+      return freeRanges;
+    }
+  }
+
+  /**
+   * Feeds the busy ranges of some attendees of an {@code AttendeeIndex} to a
+   * {@code FreeRangeMerge} in order of start, but only as many as it takes to produce the next free
+   * range. Each attendee's ranges are already sorted, so this is a k-way merge: a binary min-heap
+   * holds the next range of every attendee, and taking one costs O(log k) for k attendees. Finding
+   * the first few options only touches the busy ranges that come before them.
+   */
+  private static final class LazySweep {
+    private final AttendeeIndex index;
+    private final int[] ids;
+    private final int[] cursors;
+
+    // For every attendee with ranges left, the start of their next range in the high 32 bits and
+    // their position in ids in the low 32 bits, as a binary min-heap.
+    private final long[] heap;
+    private int size;
+
+    private final FreeRangeMerge merge;
+    private int emitted;
+
+    /**
+     * Sweeps over the busy ranges of the first {@code count} attendees in {@code ids}.
+     */
+    private LazySweep(AttendeeIndex index, int[] ids, int count, int duration) {
+      this.index = index;
+      this.ids = ids;
+      this.cursors = new int[count];
+      this.heap = new long[count];
+      this.merge = new FreeRangeMerge(duration, Integer.MAX_VALUE);
+      for (int slot = 0; slot < count; slot++) {
+        if (index.busyCount(ids[slot]) > 0) {
+          heap[size++] = keyOf(slot);
+        }
+      }
+      for (int i = size / 2 - 1; i >= 0; i--) {
+        siftDown(i);
+      }
+    }
+
+    private boolean hasNext() {
+      while (emitted == merge.freeRanges.size()) {
+        if (size == 0) {
+          merge.finish();
+          return emitted < merge.freeRanges.size();
+        }
+
+        int slot = (int) heap[0];
+        int id = ids[slot];
+        merge.addBusy(index.busyStart(id, cursors[slot]), index.busyEnd(id, cursors[slot]));
+        if (++cursors[slot] < index.busyCount(id)) {
+          heap[0] = keyOf(slot);
+        } else {
+          heap[0] = heap[--size];
+        }
+        siftDown(0);
+      }
+      return true;
+    }
+
+    private long nextRange() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return merge.freeRanges.get(emitted++);
+    }
+
+    private long keyOf(int slot) {
+      return ((long) index.busyStart(ids[slot], cursors[slot]) << 32) | slot;
+    }
+
+    private void siftDown(int i) {
+      if (size == 0) {
+        return;
+      }
+
+      long value = heap[i];
+      while (2 * i + 1 < size) {
+        int child = 2 * i + 1;
+        if (child + 1 < size && heap[child + 1] < heap[child]) {
+          child++;
+        }
+        if (value <= heap[child]) {
           break;
-        } else if (j == timeRanges.length - 1 
-            || timeRanges[j].end() >= TimeRange.WHOLE_DAY.end()) {
-          // Special case: last element of condensedTimeRanges.
-          TimeRange condensed = 
-            TimeRange.fromStartEnd(startChunk.start(), timeRanges[j - 1].end(), true);
-          condensedTimeRanges.add(condensed);
-
-          i = timeRanges.length; // End the outter for loop.
+        }
+        heap[i] = heap[child];
+        i = child;
+      }
+      heap[i] = value;
+    }
+  }
+
+  /**
+   * The options of a request, produced one at a time by a {@code LazySweep} over every requested
+   * attendee. If that sweep ends without any option, a second one over the mandatory attendees
+   * takes over, unless {@code optionalOnly} says there are none.
+   */
+  private static final class LazyOptions implements Iterator<TimeRange> {
+    private final AttendeeIndex index;
+    private final int[] ids;
+    private final int mandatoryCount;
+    private final int duration;
+    private boolean canFallBack;
+    private LazySweep sweep;
+
+    private LazyOptions(AttendeeIndex index, int[] ids, int mandatoryCount, int idCount,
+        int duration, boolean optionalOnly) {
+      this.index = index;
+      this.ids = ids;
+      this.mandatoryCount = mandatoryCount;
+      this.duration = duration;
+      // Without any optional attendees to drop, a second sweep would find nothing new.
+      this.canFallBack = !optionalOnly && mandatoryCount < idCount;
+      this.sweep = new LazySweep(index, ids, idCount, duration);
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (sweep.hasNext()) {
+        canFallBack = false;
+        return true;
+      }
+      if (canFallBack) {
+        canFallBack = false;
+        sweep = new LazySweep(index, ids, mandatoryCount, duration);
+        return sweep.hasNext();
+      }
+      return false;
+    }
+
+    private long nextRange() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return sweep.nextRange();
+    }
+
+    @Override
+    public TimeRange next() {
+      return PackedRange.toTimeRange(nextRange());
+    }
+  }
+
+  /**
+   * Packs a busy range for the sweep. Ranges of mandatory attendees carry the
+   * {@code PackedRange} flag so the sweep can tell them apart after sorting.
+   */
+  private static long packBusy(int start, int end, boolean mandatory) {
+    long range = PackedRange.fromStartEnd(start, end);
+    return mandatory ? PackedRange.flagged(range) : range;
+  }
+
+  /**
+   * Checks every possible start minute against every event, as the original scheduler did, and
+   * returns the first {@code limit} options. The off hours of the attendees of {@code request}
+   * count as busy too. The scan tracks the answer for everyone and the answer for the mandatory
+   * attendees only at once, and falls back to the second when the first is empty. This is the
+   * baseline the other strategies are measured against, so it deliberately does no prefiltering.
+   */
+  private static RangeList scanMinutes(
+      Collection<Event> events, MeetingRequest request, int limit) {
+    Collection<String> mandatory = request.getAttendees();
+    Collection<String> optional = request.getOptionalAttendees();
+    RangeList mandatoryOffHours = new RangeList();
+    RangeList optionalOffHours = new RangeList();
+    for (Map.Entry<String, WorkingHours> entry : request.getWorkingHours().entrySet()) {
+      int[] offHours = entry.getValue().offHoursRanges();
+      RangeList busyRanges =
+          mandatory.contains(entry.getKey()) ? mandatoryOffHours : optionalOffHours;
+      if (isRequested(request, entry.getKey())) {
+        for (int i = 0; i < offHours.length; i += 2) {
+          busyRanges.add(offHours[i], offHours[i + 1]);
+        }
+      }
+    }
+
+    // A zero minute meeting still needs a non-empty gap to happen in.
+    final int minimumGap = Math.max((int) request.getDuration(), 1);
+    final int lastStart = TimeRange.WHOLE_DAY.end() - minimumGap;
+    final boolean canFallBack = !mandatory.isEmpty();
+    MinuteRuns everyone = new MinuteRuns(minimumGap, limit);
+    MinuteRuns mandatoryOnly = new MinuteRuns(minimumGap, limit);
+    for (int meetingTime = TimeRange.START_OF_DAY;
+        meetingTime <= lastStart && !everyone.isFull(); meetingTime += TIME_INCREMENT) {
+      TimeRange meeting = TimeRange.fromStartDuration(meetingTime, minimumGap);
+      long packedMeeting = PackedRange.of(meeting);
+      boolean mandatoryFree = isFree(packedMeeting, mandatoryOffHours);
+      boolean optionalFree = isFree(packedMeeting, optionalOffHours);
+      for (Event event : events) {
+        if (!mandatoryFree) {
           break;
         }
+        // Empty events don't take up any minute and can't block a meeting.
+        if (event.getWhen().duration() == 0 || !meeting.overlaps(event.getWhen())) {
+          continue;
+        }
+        if (!Collections.disjoint(event.getAttendees(), mandatory)) {
+          mandatoryFree = false;
+        } else if (!Collections.disjoint(event.getAttendees(), optional)) {
+          optionalFree = false;
+        }
+      }
+      everyone.visit(meetingTime, mandatoryFree && optionalFree);
+      if (canFallBack && everyone.isEmpty()) {
+        mandatoryOnly.visit(meetingTime, mandatoryFree);
       }
     }
 
-    return condensedTimeRanges;
+    RangeList meetingOptions = everyone.finish();
+    return meetingOptions.isEmpty() && canFallBack ? mandatoryOnly.finish() : meetingOptions;
   }
 
-  private static void printMeetings(String preMessage, Collection<TimeRange> meetingOptions) {
-    System.out.println(preMessage);
-    for(TimeRange tr : meetingOptions) {
-      System.out.println(tr.toString());
+  /**
+   * Collects the runs of free start minutes that a minute scan visits, in order, as options.
+   */
+  private static final class MinuteRuns {
+    private final int minimumGap;
+    private final int limit;
+    private final RangeList meetingOptions = new RangeList();
+    private int runStart = -1;
+    private int previousStart = -1;
+
+    private MinuteRuns(int minimumGap, int limit) {
+      this.minimumGap = minimumGap;
+      this.limit = limit;
+    }
+
+    private void visit(int meetingTime, boolean free) {
+      if (free) {
+        if (runStart < 0) {
+          runStart = meetingTime;
+        }
+        previousStart = meetingTime;
+      } else if (runStart >= 0) {
+        addRun();
+      }
+    }
+
+    private boolean isEmpty() {
+      return meetingOptions.isEmpty() && runStart < 0;
+    }
+
+    private boolean isFull() {
+      return meetingOptions.size() >= limit;
+    }
+
+    private RangeList finish() {
+      if (runStart >= 0) {
+        addRun();
+      }
+      return meetingOptions;
+    }
+
+    private void addRun() {
+      // The meeting can start as late as the last free start and still end in time.
+      if (!isFull()) {
+        meetingOptions.add(runStart, previousStart + minimumGap);
+      }
+      runStart = -1;
+    }
+  }
+
+  private static boolean isFree(long meeting, RangeList busyRanges) {
+    for (int i = 0; i < busyRanges.size(); i++) {
+      if (PackedRange.overlaps(meeting, busyRanges.get(i))) {
+        return false;
+      }
     }
+    return true;
   }
 }
@@ -0,0 +1,149 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only {@code CalendarSource} over events held in memory. Every attendee maps to their events
+ * sorted by start, so a lookup binary searches to the first event that can reach the window and
+ * stops at the first one that starts after it.
+ */
+public final class InMemoryCalendarSource implements CalendarSource {
+  private static final Event[] NO_EVENTS = new Event[0];
+
+  /**
+   * The events of a single attendee, or of the whole calendar.
+   */
+  private static final class Schedule {
+    // The events, sorted by start.
+    private final Event[] events;
+
+    // The starts of {@code events}, for binary searching without touching the events.
+    private final int[] starts;
+
+    // The duration of the longest event. No event that starts more than this before
+    // the window can overlap it.
+    private final int longest;
+
+    private Schedule(List<Event> events) {
+      this.events = events.toArray(NO_EVENTS);
+      Arrays.sort(this.events, Comparator.comparingInt(event -> event.getWhen().start()));
+      this.starts = new int[this.events.length];
+      int longest = 0;
+      for (int i = 0; i < this.events.length; i++) {
+        starts[i] = this.events[i].getWhen().start();
+        longest = Math.max(longest, this.events[i].getWhen().duration());
+      }
+      this.longest = longest;
+    }
+
+    /**
+     * Adds the events that overlap {@code window} and aren't part of {@code seen} yet to
+     * {@code result}, in order of their start.
+     */
+    private void collect(TimeRange window, Set<Event> seen, List<Event> result) {
+      for (int i = firstStartingAtOrAfter(starts, window.start() - longest);
+          i < starts.length && starts[i] < window.end(); i++) {
+        if (events[i].getWhen().end() > window.start() && seen.add(events[i])) {
+          result.add(events[i]);
+        }
+      }
+    }
+  }
+
+  private final Map<String, Schedule> schedules = new HashMap<>();
+
+  // Every event, regardless of its attendees.
+  private final Schedule all;
+
+  /**
+   * Creates a source that holds {@code events}. Must be non-null.
+   */
+  public InMemoryCalendarSource(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+
+    List<Event> allEvents = new ArrayList<>();
+    Map<String, List<Event>> eventsByAttendee = new HashMap<>();
+    for (Event event : events) {
+      if (event.getWhen().duration() <= 0) {
+        continue;
+      }
+      allEvents.add(event);
+      for (String attendee : event.getAttendees()) {
+        eventsByAttendee.computeIfAbsent(attendee, key -> new ArrayList<Event>()).add(event);
+      }
+    }
+    for (Map.Entry<String, List<Event>> entry : eventsByAttendee.entrySet()) {
+      schedules.put(entry.getKey(), new Schedule(entry.getValue()));
+    }
+    all = new Schedule(allEvents);
+  }
+
+  @Override
+  public Collection<Event> busyFor(Collection<String> attendees, TimeRange window) {
+    if (window.duration() <= 0) {
+      return new ArrayList<Event>();
+    }
+
+    // An event shared by several of the attendees must only be returned once.
+    Set<Event> busy = Collections.newSetFromMap(new IdentityHashMap<Event, Boolean>());
+    List<Event> result = new ArrayList<>();
+    for (String attendee : attendees) {
+      Schedule schedule = schedules.get(attendee);
+      if (schedule != null) {
+        schedule.collect(window, busy, result);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns every event that overlaps {@code window}, whoever attends it, in order of their start.
+   * Events that don't take any time are left out.
+   */
+  public List<Event> eventsDuring(TimeRange window) {
+    List<Event> result = new ArrayList<>();
+    if (window.duration() > 0) {
+      all.collect(window, Collections.newSetFromMap(new IdentityHashMap<Event, Boolean>()), result);
+    }
+    return result;
+  }
+
+  private static int firstStartingAtOrAfter(int[] starts, int time) {
+    int low = 0;
+    int high = starts.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (starts[middle] < time) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,72 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * A range of time in which a meeting can be held, together with how many of the request's optional
+ * attendees are free for any meeting placed within that range. Options are read-only.
+ */
+public final class MeetingOption {
+  private final TimeRange when;
+  private final int optionalAttendeeCount;
+
+  /**
+   * Creates a new option.
+   *
+   * @param when The range in which the meeting can be held. Must be non-null.
+   * @param optionalAttendeeCount The number of optional attendees that can attend.
+   */
+  public MeetingOption(TimeRange when, int optionalAttendeeCount) {
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+
+    this.when = when;
+    this.optionalAttendeeCount = optionalAttendeeCount;
+  }
+
+  /**
+   * Returns the {@code TimeRange} in which the meeting can be held.
+   */
+  public TimeRange getWhen() {
+    return when;
+  }
+
+  /**
+   * Returns how many optional attendees can attend a meeting held in this range.
+   */
+  public int getOptionalAttendeeCount() {
+    return optionalAttendeeCount;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof MeetingOption && equals(this, (MeetingOption) other);
+  }
+
+  @Override
+  public int hashCode() {
+    return when.hashCode() * 31 + optionalAttendeeCount;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s with %d optional attendees", when, optionalAttendeeCount);
+  }
+
+  private static boolean equals(MeetingOption a, MeetingOption b) {
+    return a.when.equals(b.when) && a.optionalAttendeeCount == b.optionalAttendeeCount;
+  }
+}
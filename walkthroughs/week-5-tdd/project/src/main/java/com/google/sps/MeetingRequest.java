@@ -18,7 +18,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 
 public final class MeetingRequest {
   // All the people that should be attending this new meeting. Use a set to avoid duplicates.
@@ -30,6 +32,22 @@ public final class MeetingRequest {
   // The duration of the meeting in minutes.
   private final long duration;
 
+  // Whether to settle for the most optional attendees when they can't all attend.
+  private boolean maximize_optional_attendees;
+
+  // How many of the earliest options to return, or 0 for every option of the day.
+  private int max_options;
+
+  // How many minutes to keep free before and after every busy range next to the meeting.
+  private int buffer_minutes;
+
+  // The shortest free time the meeting may leave between itself and a busy range, or 0 for any.
+  private int min_fragment_minutes;
+
+  // The hours during which some of the attendees are willing to meet. Everyone else can meet at
+  // any time of the day.
+  private Map<String, WorkingHours> working_hours = new HashMap<>();
+
   public MeetingRequest(Collection<String> attendees, long duration) {
     this.duration = duration;
     this.attendees.addAll(attendees);
@@ -39,6 +57,10 @@ public final class MeetingRequest {
    * Returns a read-only copy of the people who are required to attend this meeting.
    */
   public Collection<String> getAttendees() {
+    // Gson doesn't run field initializers, so requests parsed from JSON may be missing fields.
+    if (attendees == null) {
+      return Collections.emptySet();
+    }
     return Collections.unmodifiableCollection(attendees);
   }
 
@@ -46,6 +68,9 @@ public final class MeetingRequest {
    * Returns a read-only copy of the people who are optional to attend this meeting.
    */
   public Collection<String> getOptionalAttendees() {
+    if (optional_attendees == null) {
+      return Collections.emptySet();
+    }
     return Collections.unmodifiableCollection(optional_attendees);
   }
 
@@ -58,6 +83,141 @@ public final class MeetingRequest {
     }
   }
 
+  /**
+   * Sets whether the query should return the times that fit the most optional attendees when no
+   * time fits all of them, instead of falling back to the mandatory attendees only.
+   */
+  public void setMaximizeOptionalAttendees(boolean maximize) {
+    this.maximize_optional_attendees = maximize;
+  }
+
+  /**
+   * Returns whether the query should settle for the most optional attendees it can fit.
+   */
+  public boolean getMaximizeOptionalAttendees() {
+    return maximize_optional_attendees;
+  }
+
+  /**
+   * Limits the query to the {@code maxOptions} earliest options, so that it can stop looking once
+   * it found them. Use 1 to only get the earliest option, or 0 to get every option of the day.
+   */
+  public void setMaxOptions(int maxOptions) {
+    if (maxOptions < 0) {
+      throw new IllegalArgumentException("maxOptions cannot be negative");
+    }
+
+    this.max_options = maxOptions;
+  }
+
+  /**
+   * Returns how many of the earliest options the query should return, or 0 for all of them.
+   */
+  public int getMaxOptions() {
+    return max_options;
+  }
+
+  /**
+   * Keeps {@code bufferMinutes} free between the meeting and any busy time of its attendees,
+   * including the time outside their working hours. The start and the end of the day need no
+   * buffer.
+   */
+  public void setBufferMinutes(int bufferMinutes) {
+    if (bufferMinutes < 0) {
+      throw new IllegalArgumentException("bufferMinutes cannot be negative");
+    }
+
+    this.buffer_minutes = bufferMinutes;
+  }
+
+  /**
+   * Returns how many minutes to keep free around the busy time next to the meeting.
+   */
+  public int getBufferMinutes() {
+    return buffer_minutes;
+  }
+
+  /**
+   * Only places the meeting where it leaves either no free time or at least
+   * {@code minFragmentMinutes} on each side, before the next busy range or the edge of the day.
+   * An option may then be as short as the meeting itself, and options may overlap. Maximizing
+   * optional attendees ignores this setting.
+   */
+  public void setMinFragmentMinutes(int minFragmentMinutes) {
+    if (minFragmentMinutes < 0) {
+      throw new IllegalArgumentException("minFragmentMinutes cannot be negative");
+    }
+
+    this.min_fragment_minutes = minFragmentMinutes;
+  }
+
+  /**
+   * Returns the shortest free time the meeting may leave on either side, or 0 for any.
+   */
+  public int getMinFragmentMinutes() {
+    return min_fragment_minutes;
+  }
+
+  /**
+   * Only lets the meeting take place during {@code hours} for {@code attendee}, who may be a
+   * mandatory or an optional attendee.
+   */
+  public void setWorkingHours(String attendee, WorkingHours hours) {
+    if (attendee == null) {
+      throw new IllegalArgumentException("attendee cannot be null");
+    }
+
+    if (hours == null) {
+      throw new IllegalArgumentException("hours cannot be null");
+    }
+
+    working_hours.put(attendee, hours);
+  }
+
+  /**
+   * Returns a read-only map from attendee to working hours, for the attendees that have them.
+   */
+  public Map<String, WorkingHours> getWorkingHours() {
+    if (working_hours == null) {
+      return Collections.emptyMap();
+    }
+    return Collections.unmodifiableMap(working_hours);
+  }
+
+  /**
+   * Checks the fields that Gson fills in directly, without going through the validating setters
+   * or the {@code WorkingHours} constructor. Requests parsed from JSON should be validated once
+   * before they are queried.
+   *
+   * @throws IllegalArgumentException if a field is invalid
+   */
+  public void validate() {
+    if (duration < 0) {
+      throw new IllegalArgumentException("duration cannot be negative");
+    }
+
+    if (max_options < 0) {
+      throw new IllegalArgumentException("maxOptions cannot be negative");
+    }
+
+    if (buffer_minutes < 0) {
+      throw new IllegalArgumentException("bufferMinutes cannot be negative");
+    }
+
+    if (min_fragment_minutes < 0) {
+      throw new IllegalArgumentException("minFragmentMinutes cannot be negative");
+    }
+
+    if (working_hours != null) {
+      for (WorkingHours hours : working_hours.values()) {
+        if (hours == null) {
+          throw new IllegalArgumentException("working hours cannot be null");
+        }
+        hours.checkValid();
+      }
+    }
+  }
+
   /**
    * Returns the duration of the meeting in minutes.
    */
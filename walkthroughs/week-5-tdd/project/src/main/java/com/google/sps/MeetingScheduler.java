@@ -0,0 +1,194 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Places many meeting requests into a shared {@code CalendarStore} so that none of them collide.
+ * Requests are placed greedily at their earliest option, most constrained first, and every placed
+ * meeting is added to the store as an event right away, so later requests see it as busy time.
+ */
+public final class MeetingScheduler {
+  /**
+   * The outcome of one {@code schedule} call. Results are read-only.
+   */
+  public static final class Result {
+    private final List<MeetingRequest> requests;
+    private final Event[] placements;
+
+    private Result(List<MeetingRequest> requests, Event[] placements) {
+      this.requests = requests;
+      this.placements = placements;
+    }
+
+    /**
+     * Returns the event that was added to the store for the {@code index}-th request, or
+     * {@code null} if it could not be placed.
+     */
+    public Event getPlacement(int index) {
+      return placements[index];
+    }
+
+    /**
+     * Returns how many requests were placed.
+     */
+    public int getPlacedCount() {
+      return requests.size() - getUnplaced().size();
+    }
+
+    /**
+     * Returns the requests that could not be placed, in the order they were given.
+     */
+    public List<MeetingRequest> getUnplaced() {
+      List<MeetingRequest> unplaced = new ArrayList<>();
+      for (int i = 0; i < placements.length; i++) {
+        if (placements[i] == null) {
+          unplaced.add(requests.get(i));
+        }
+      }
+      return Collections.unmodifiableList(unplaced);
+    }
+  }
+
+  private final CalendarStore store;
+  private final FindMeetingQuery query;
+
+  /**
+   * Creates a scheduler that places meetings into {@code store}.
+   */
+  public MeetingScheduler(CalendarStore store) {
+    this(store, new FindMeetingQuery());
+  }
+
+  /**
+   * Creates a scheduler that places meetings into {@code store} at the options found by
+   * {@code query}.
+   */
+  public MeetingScheduler(CalendarStore store, FindMeetingQuery query) {
+    if (store == null) {
+      throw new IllegalArgumentException("store cannot be null");
+    }
+
+    if (query == null) {
+      throw new IllegalArgumentException("query cannot be null");
+    }
+
+    this.store = store;
+    this.query = query;
+  }
+
+  /**
+   * Places every one of {@code requests} it can and adds them to the store. A request is more
+   * constrained the fewer start minutes it has in the store as it was before this call. Ties go to
+   * requests with more attendees, then to longer ones, then to the earlier request. The placed
+   * meeting is held by the mandatory attendees and by every optional attendee who is free for it.
+   * The store is changed one placement at a time, so it shouldn't be changed concurrently.
+   */
+  public Result schedule(List<MeetingRequest> requests) {
+    if (requests == null) {
+      throw new IllegalArgumentException("requests cannot be null");
+    }
+
+    final int count = requests.size();
+    final long[] freeStarts = new long[count];
+    final int[] attendeeCounts = new int[count];
+    Integer[] order = new Integer[count];
+    for (int i = 0; i < count; i++) {
+      MeetingRequest request = requests.get(i);
+      freeStarts[i] = startCount(query.query(store, request), request.getDuration());
+      attendeeCounts[i] = request.getAttendees().size() + request.getOptionalAttendees().size();
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> {
+      if (freeStarts[a] != freeStarts[b]) {
+        return Long.compare(freeStarts[a], freeStarts[b]);
+      }
+      if (attendeeCounts[a] != attendeeCounts[b]) {
+        return Integer.compare(attendeeCounts[b], attendeeCounts[a]);
+      }
+      return Long.compare(requests.get(b).getDuration(), requests.get(a).getDuration());
+    });
+
+    Event[] placements = new Event[count];
+    for (int i : order) {
+      // Placing meetings only ever takes time away, so a request without options stays that way.
+      if (freeStarts[i] == 0) {
+        continue;
+      }
+      MeetingRequest request = requests.get(i);
+      Collection<TimeRange> options = query.query(store, request);
+      if (options.isEmpty()) {
+        continue;
+      }
+      TimeRange when = TimeRange.fromStartDuration(
+          options.iterator().next().start(), (int) request.getDuration());
+      placements[i] = new Event("Meeting " + i, when, attendeesOf(request, when));
+      store.add(placements[i]);
+    }
+    return new Result(new ArrayList<>(requests), placements);
+  }
+
+  /**
+   * Returns the mandatory attendees of {@code request}, plus the optional ones who are free for
+   * {@code when} and its buffers, within their working hours.
+   */
+  private Set<String> attendeesOf(MeetingRequest request, TimeRange when) {
+    Set<String> attendees = new HashSet<>(request.getAttendees());
+    final int buffer = request.getBufferMinutes();
+    for (String attendee : request.getOptionalAttendees()) {
+      WorkingHours hours = request.getWorkingHours().get(attendee);
+      if (store.isFree(attendee, Math.max(when.start() - buffer, TimeRange.START_OF_DAY),
+              Math.min(when.end() + buffer, TimeRange.WHOLE_DAY.end()))
+          && (hours == null || covers(hours.workingRanges(), when))) {
+        attendees.add(attendee);
+      }
+    }
+    return attendees;
+  }
+
+  /**
+   * Returns whether one of {@code ranges}, given as flat start/end pairs, contains all of
+   * {@code when}.
+   */
+  private static boolean covers(int[] ranges, TimeRange when) {
+    for (int i = 0; i < ranges.length; i += 2) {
+      if (ranges[i] <= when.start() && when.end() <= ranges[i + 1]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns how many different minutes a meeting of {@code duration} could start at within
+   * {@code options}.
+   */
+  private static long startCount(Collection<TimeRange> options, long duration) {
+    // A zero minute meeting still needs a non-empty gap to happen in.
+    final long minimumGap = Math.max(duration, 1);
+    long count = 0;
+    for (TimeRange option : options) {
+      count += Math.max(option.duration() - minimumGap + 1, 0);
+    }
+    return count;
+  }
+}
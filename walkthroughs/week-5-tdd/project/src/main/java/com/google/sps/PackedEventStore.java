@@ -0,0 +1,153 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only events stored as parallel primitive arrays instead of one object graph per event.
+ * Event {@code i} runs from {@code starts[i]} to {@code ends[i]}, and its attendees' ids are
+ * {@code attendeeIds[attendeeOffsets[i]]} up to, but not including,
+ * {@code attendeeIds[attendeeOffsets[i + 1]]}. Titles aren't needed for scheduling and are dropped.
+ * A query over millions of events then walks a few flat arrays instead of chasing pointers.
+ */
+public final class PackedEventStore {
+  /** Returned by {@code idOf} for people who are not part of any stored event. */
+  public static final int UNKNOWN_ATTENDEE = -1;
+
+  private final Map<String, Integer> ids;
+  private final String[] names;
+
+  private final int[] starts;
+  private final int[] ends;
+  private final int[] attendeeOffsets;
+  private final int[] attendeeIds;
+
+  private PackedEventStore(Map<String, Integer> ids, String[] names, int[] starts, int[] ends,
+      int[] attendeeOffsets, int[] attendeeIds) {
+    this.ids = ids;
+    this.names = names;
+    this.starts = starts;
+    this.ends = ends;
+    this.attendeeOffsets = attendeeOffsets;
+    this.attendeeIds = attendeeIds;
+  }
+
+  /**
+   * Packs {@code events}, in iteration order. Must be non-null.
+   */
+  public static PackedEventStore of(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+
+    int attendeeSlots = 0;
+    for (Event event : events) {
+      attendeeSlots += event.getAttendees().size();
+    }
+
+    Map<String, Integer> ids = new HashMap<>();
+    List<String> names = new ArrayList<>();
+    int[] starts = new int[events.size()];
+    int[] ends = new int[events.size()];
+    int[] attendeeOffsets = new int[events.size() + 1];
+    int[] attendeeIds = new int[attendeeSlots];
+    int i = 0;
+    int slot = 0;
+    for (Event event : events) {
+      starts[i] = event.getWhen().start();
+      ends[i] = event.getWhen().end();
+      for (String attendee : event.getAttendees()) {
+        Integer id = ids.get(attendee);
+        if (id == null) {
+          id = names.size();
+          ids.put(attendee, id);
+          names.add(attendee);
+        }
+        attendeeIds[slot++] = id;
+      }
+      attendeeOffsets[++i] = slot;
+    }
+
+    return new PackedEventStore(
+        ids, names.toArray(new String[0]), starts, ends, attendeeOffsets, attendeeIds);
+  }
+
+  /**
+   * Returns the number of stored events.
+   */
+  public int size() {
+    return starts.length;
+  }
+
+  /**
+   * Returns the number of distinct attendees. Ids run from 0 up to, but not including, this value.
+   */
+  public int attendeeCount() {
+    return names.length;
+  }
+
+  /**
+   * Returns the id of {@code attendee}, or {@code UNKNOWN_ATTENDEE} if they are not part of any
+   * stored event.
+   */
+  public int idOf(String attendee) {
+    Integer id = ids.get(attendee);
+    return id == null ? UNKNOWN_ATTENDEE : id;
+  }
+
+  /**
+   * Returns the name of the attendee with the given id.
+   */
+  public String nameOf(int id) {
+    return names[id];
+  }
+
+  /**
+   * Returns the start of the {@code i}-th event.
+   */
+  public int start(int i) {
+    return starts[i];
+  }
+
+  /**
+   * Returns the exclusive end of the {@code i}-th event.
+   */
+  public int end(int i) {
+    return ends[i];
+  }
+
+  // The arrays below are shared with the query engine, so callers must not change them.
+
+  int[] starts() {
+    return starts;
+  }
+
+  int[] ends() {
+    return ends;
+  }
+
+  int[] attendeeOffsets() {
+    return attendeeOffsets;
+  }
+
+  int[] attendeeIds() {
+    return attendeeIds;
+  }
+}
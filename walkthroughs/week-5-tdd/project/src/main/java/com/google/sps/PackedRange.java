@@ -0,0 +1,128 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * Static helpers for a span of time packed into a single {@code long}: the start in the high 32
+ * bits and the exclusive end in the low 32 bits. Packed ranges behave like {@code TimeRange}, but
+ * live in primitive arrays and locals, so code that handles many of them doesn't allocate. Sorting
+ * packed ranges with non-negative ends sorts them by start, then by end.
+ */
+public final class PackedRange {
+  // Real ends are small and non-negative, so the top bit of the end half is free for a flag.
+  private static final long FLAG = 1L << 31;
+
+  private PackedRange() {}
+
+  /**
+   * Packs the range from {@code start} to {@code end}, exclusive.
+   */
+  public static long fromStartEnd(int start, int end) {
+    return ((long) start << 32) | (end & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Packs the range starting at {@code start} that lasts {@code duration} minutes.
+   */
+  public static long fromStartDuration(int start, int duration) {
+    return fromStartEnd(start, start + duration);
+  }
+
+  /**
+   * Packs the same range as {@code range}.
+   */
+  public static long of(TimeRange range) {
+    return fromStartEnd(range.start(), range.end());
+  }
+
+  /**
+   * Returns the start of {@code range} in minutes.
+   */
+  public static int start(long range) {
+    return (int) (range >> 32);
+  }
+
+  /**
+   * Returns the end of {@code range}. This ending value is the closing exclusive bound.
+   */
+  public static int end(long range) {
+    return (int) range;
+  }
+
+  /**
+   * Returns the number of minutes between the start and end of {@code range}.
+   */
+  public static int duration(long range) {
+    return end(range) - start(range);
+  }
+
+  /**
+   * Checks if two ranges overlap, with the same rules as {@code TimeRange.overlaps}.
+   */
+  public static boolean overlaps(long a, long b) {
+    return contains(a, start(b)) || contains(b, start(a));
+  }
+
+  /**
+   * Checks if {@code range} completely contains {@code other}, with the same rules as
+   * {@code TimeRange.contains(TimeRange)}.
+   */
+  public static boolean contains(long range, long other) {
+    if (duration(range) <= 0) {
+      return false;
+    }
+    if (duration(other) <= 0) {
+      return contains(range, start(other));
+    }
+    return contains(range, start(other)) && contains(range, end(other) - 1);
+  }
+
+  /**
+   * Checks if {@code point} falls within {@code range}. The end of the range is not part of it.
+   */
+  public static boolean contains(long range, int point) {
+    return point >= start(range) && point < end(range);
+  }
+
+  /**
+   * Returns {@code range} with its flag set. Callers decide what the flag means, such as whether
+   * the range belongs to a mandatory attendee. A flagged range still sorts by start first, but
+   * pass it through {@link #unflagged} before reading its end or comparing it to other ranges.
+   */
+  public static long flagged(long range) {
+    return range | FLAG;
+  }
+
+  /**
+   * Checks if the flag of {@code range} is set.
+   */
+  public static boolean isFlagged(long range) {
+    return (range & FLAG) != 0;
+  }
+
+  /**
+   * Returns {@code range} with its flag cleared.
+   */
+  public static long unflagged(long range) {
+    return range & ~FLAG;
+  }
+
+  /**
+   * Boxes {@code range} into a {@code TimeRange}.
+   */
+  public static TimeRange toTimeRange(long range) {
+    return TimeRange.fromStartEnd(start(range), end(range), false);
+  }
+}
@@ -0,0 +1,262 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A bounded cache of answers to {@code FindMeetingQuery.query} over a {@code CalendarStore}.
+ * Requests for the same people and duration share one entry, no matter in which order the people
+ * were listed. When an event of some attendee changes, exactly the entries that involve that
+ * attendee are dropped. Once the cache is full, the least recently used entry is evicted.
+ */
+public final class QueryCache implements CalendarStore.Listener {
+  /**
+   * The canonical form of a request: sorted attendees, sorted optional attendees, duration,
+   * spacing, working hours and the options that shape the answer.
+   */
+  private static final class Key {
+    private final List<String> attendees;
+    private final List<String> optionalAttendees;
+    private final long duration;
+    private final boolean maximizeOptionalAttendees;
+    private final int maxOptions;
+    private final int bufferMinutes;
+    private final int minFragmentMinutes;
+    private final Map<String, WorkingHours> workingHours;
+
+    private Key(MeetingRequest request) {
+      this.attendees = sorted(request.getAttendees());
+      this.optionalAttendees = sorted(request.getOptionalAttendees());
+      this.duration = request.getDuration();
+      this.maximizeOptionalAttendees = request.getMaximizeOptionalAttendees();
+      this.maxOptions = request.getMaxOptions();
+      this.bufferMinutes = request.getBufferMinutes();
+      this.minFragmentMinutes = request.getMinFragmentMinutes();
+      this.workingHours = new HashMap<>(request.getWorkingHours());
+    }
+
+    private static List<String> sorted(Collection<String> people) {
+      List<String> sorted = new ArrayList<>(people);
+      Collections.sort(sorted);
+      return sorted;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return duration == key.duration && maximizeOptionalAttendees == key.maximizeOptionalAttendees
+          && maxOptions == key.maxOptions && bufferMinutes == key.bufferMinutes
+          && minFragmentMinutes == key.minFragmentMinutes && attendees.equals(key.attendees)
+          && optionalAttendees.equals(key.optionalAttendees)
+          && workingHours.equals(key.workingHours);
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = attendees.hashCode();
+      hash = 31 * hash + optionalAttendees.hashCode();
+      hash = 31 * hash + Long.hashCode(duration);
+      hash = 31 * hash + (maximizeOptionalAttendees ? 1 : 0);
+      hash = 31 * hash + maxOptions;
+      hash = 31 * hash + bufferMinutes;
+      hash = 31 * hash + minFragmentMinutes;
+      return 31 * hash + workingHours.hashCode();
+    }
+  }
+
+  private final FindMeetingQuery query;
+  private final CalendarStore store;
+  private final int maximumSize;
+
+  // Entries in least recently used order. Guarded by {@code this}.
+  private final LinkedHashMap<Key, List<TimeRange>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  // The keys of the entries that involve each attendee. Guarded by {@code this}.
+  private final Map<String, Set<Key>> keysByAttendee = new HashMap<>();
+
+  // Bumped on every change to the calendar. An answer is only stored if no change happened while
+  // it was being computed, as it might otherwise be computed from the old calendar.
+  private long generation;
+
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+  private long invalidationCount;
+
+  private QueryCache(FindMeetingQuery query, CalendarStore store, int maximumSize) {
+    this.query = query;
+    this.store = store;
+    this.maximumSize = maximumSize;
+  }
+
+  /**
+   * Creates a cache that holds at most {@code maximumSize} answers of {@code query} over
+   * {@code store}, and registers it to hear about changes to the store.
+   */
+  public static QueryCache of(FindMeetingQuery query, CalendarStore store, int maximumSize) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("maximumSize must be positive");
+    }
+
+    QueryCache cache = new QueryCache(query, store, maximumSize);
+    store.addListener(cache);
+    return cache;
+  }
+
+  /**
+   * Answers every request in {@code requests} in parallel on {@code pool}, each from the cache if
+   * possible. The answers are returned in the same order as the requests.
+   */
+  public List<Collection<TimeRange>> queryAll(List<MeetingRequest> requests, ForkJoinPool pool) {
+    return FindMeetingQuery.queryAll(this::query, requests, pool);
+  }
+
+  /**
+   * Returns the answer of {@code FindMeetingQuery.query} for {@code request}, from the cache if
+   * possible. The returned collection is read-only.
+   */
+  public Collection<TimeRange> query(MeetingRequest request) {
+    Key key = new Key(request);
+    long startGeneration;
+    synchronized (this) {
+      List<TimeRange> cached = entries.get(key);
+      if (cached != null) {
+        hitCount++;
+        return cached;
+      }
+      missCount++;
+      startGeneration = generation;
+    }
+
+    // Compute outside of the lock, so that a slow query doesn't block the hits of others.
+    List<TimeRange> answer =
+        Collections.unmodifiableList(new ArrayList<>(query.query(store, request)));
+
+    synchronized (this) {
+      if (generation == startGeneration && !entries.containsKey(key)) {
+        entries.put(key, answer);
+        index(key);
+        evictIfFull();
+      }
+    }
+    return answer;
+  }
+
+  @Override
+  public synchronized void onChange(Set<String> attendees) {
+    generation++;
+    for (String attendee : attendees) {
+      Set<Key> keys = keysByAttendee.remove(attendee);
+      if (keys == null) {
+        continue;
+      }
+      for (Key key : keys) {
+        if (entries.remove(key) != null) {
+          invalidationCount++;
+          unindex(key, attendee);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the number of answers in the cache.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns how many queries were answered from the cache.
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns how many queries had to be computed.
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns how many answers were dropped to make room for newer ones.
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Returns how many answers were dropped because the calendar of one of their attendees changed.
+   */
+  public synchronized long getInvalidationCount() {
+    return invalidationCount;
+  }
+
+  private void evictIfFull() {
+    Iterator<Key> oldest = entries.keySet().iterator();
+    while (entries.size() > maximumSize) {
+      Key key = oldest.next();
+      oldest.remove();
+      unindex(key, null);
+      evictionCount++;
+    }
+  }
+
+  private void index(Key key) {
+    for (String attendee : attendeesOf(key)) {
+      keysByAttendee.computeIfAbsent(attendee, unused -> new HashSet<>()).add(key);
+    }
+  }
+
+  /**
+   * Drops {@code key} from the keys of every attendee it involves, except {@code skip}.
+   */
+  private void unindex(Key key, String skip) {
+    for (String attendee : attendeesOf(key)) {
+      if (attendee.equals(skip)) {
+        continue;
+      }
+      Set<Key> keys = keysByAttendee.get(attendee);
+      if (keys != null) {
+        keys.remove(key);
+        if (keys.isEmpty()) {
+          keysByAttendee.remove(attendee);
+        }
+      }
+    }
+  }
+
+  private static List<String> attendeesOf(Key key) {
+    List<String> attendees = new ArrayList<>(key.attendees);
+    attendees.addAll(key.optionalAttendees);
+    return attendees;
+  }
+}
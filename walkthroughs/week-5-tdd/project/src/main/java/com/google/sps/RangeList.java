@@ -0,0 +1,101 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable list of {@code PackedRange}s backed by a single {@code long[]}. Adding a range never
+ * allocates an object, only the occasional larger array.
+ */
+public final class RangeList {
+  private static final int DEFAULT_CAPACITY = 8;
+
+  private long[] ranges;
+  private int size;
+
+  public RangeList() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates an empty list with room for {@code capacity} ranges before it has to grow.
+   */
+  public RangeList(int capacity) {
+    ranges = new long[Math.max(capacity, 1)];
+  }
+
+  /**
+   * Appends the packed {@code range}.
+   */
+  public void add(long range) {
+    if (size == ranges.length) {
+      ranges = Arrays.copyOf(ranges, ranges.length * 2);
+    }
+    ranges[size++] = range;
+  }
+
+  /**
+   * Appends the range from {@code start} to {@code end}, exclusive.
+   */
+  public void add(int start, int end) {
+    add(PackedRange.fromStartEnd(start, end));
+  }
+
+  /**
+   * Returns the packed range at {@code index}.
+   */
+  public long get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index " + index + " out of " + size);
+    }
+    return ranges[index];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes every range, keeping the backing array so that the list can be reused.
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Sorts the ranges by start, then by end.
+   */
+  public void sort() {
+    Arrays.sort(ranges, 0, size);
+  }
+
+  /**
+   * Boxes every range into a {@code TimeRange}, in order.
+   */
+  public List<TimeRange> toTimeRanges() {
+    List<TimeRange> timeRanges = new ArrayList<TimeRange>(size);
+    for (int i = 0; i < size; i++) {
+      timeRanges.add(PackedRange.toTimeRange(ranges[i]));
+    }
+    return timeRanges;
+  }
+}
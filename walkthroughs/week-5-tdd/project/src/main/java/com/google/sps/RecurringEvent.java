@@ -0,0 +1,172 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An event that repeats every few days, e.g. a daily stand-up. Only the rule is stored; the
+ * occurrences are worked out on demand, and only for the window that is asked about, so a meeting
+ * that repeats for years costs as much memory as one that happens once. Recurring events are
+ * read-only; {@code until} and {@code except} return modified copies.
+ */
+public final class RecurringEvent {
+  // Used for {@code until} when occurrences go on forever.
+  private static final long FOREVER = Long.MAX_VALUE;
+
+  private final String title;
+  private final EpochRange first;
+  private final int intervalDays;
+  private final long untilEpochDay;
+  private final Set<Long> exceptions;
+  private final Set<String> attendees;
+
+  private RecurringEvent(String title, EpochRange first, int intervalDays, long untilEpochDay,
+      Set<Long> exceptions, Set<String> attendees) {
+    this.title = title;
+    this.first = first;
+    this.intervalDays = intervalDays;
+    this.untilEpochDay = untilEpochDay;
+    this.exceptions = exceptions;
+    this.attendees = attendees;
+  }
+
+  /**
+   * Creates an event that first takes place at {@code first} and then again every
+   * {@code intervalDays} days, forever.
+   *
+   * @param title The human-readable name for the event. Must be non-null.
+   * @param first The time of the first occurrence. Must be non-null.
+   * @param intervalDays The number of days between occurrences. Must be positive.
+   * @param attendees The collection of people attending the event. Must be non-null.
+   */
+  public static RecurringEvent everyNDays(
+      String title, EpochRange first, int intervalDays, Collection<String> attendees) {
+    if (title == null) {
+      throw new IllegalArgumentException("title cannot be null");
+    }
+
+    if (first == null) {
+      throw new IllegalArgumentException("first cannot be null");
+    }
+
+    if (intervalDays <= 0) {
+      throw new IllegalArgumentException("intervalDays must be positive");
+    }
+
+    if (attendees == null) {
+      throw new IllegalArgumentException("attendees cannot be null. Use empty array instead.");
+    }
+
+    return new RecurringEvent(title, first, intervalDays, FOREVER, Collections.<Long>emptySet(),
+        Collections.unmodifiableSet(new HashSet<String>(attendees)));
+  }
+
+  /**
+   * Same as {@code everyNDays} with an interval of one day.
+   */
+  public static RecurringEvent daily(
+      String title, EpochRange first, Collection<String> attendees) {
+    return everyNDays(title, first, 1, attendees);
+  }
+
+  /**
+   * Same as {@code everyNDays} with an interval of seven days.
+   */
+  public static RecurringEvent weekly(
+      String title, EpochRange first, Collection<String> attendees) {
+    return everyNDays(title, first, 7, attendees);
+  }
+
+  /**
+   * Returns a copy of this event whose last occurrence starts before the day {@code epochDay}.
+   */
+  public RecurringEvent until(long epochDay) {
+    return new RecurringEvent(title, first, intervalDays, epochDay, exceptions, attendees);
+  }
+
+  /**
+   * Returns a copy of this event that doesn't take place if an occurrence would start on the day
+   * {@code epochDay}.
+   */
+  public RecurringEvent except(long epochDay) {
+    Set<Long> moreExceptions = new HashSet<Long>(exceptions);
+    moreExceptions.add(epochDay);
+    return new RecurringEvent(title, first, intervalDays, untilEpochDay,
+        Collections.unmodifiableSet(moreExceptions), attendees);
+  }
+
+  /**
+   * Returns the human-readable name for this event.
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Returns the time of the first occurrence, which may be skipped by an exception.
+   */
+  public EpochRange getFirst() {
+    return first;
+  }
+
+  /**
+   * Returns the number of days between occurrences.
+   */
+  public int getIntervalDays() {
+    return intervalDays;
+  }
+
+  /**
+   * Returns a read-only set of required attendees for this event.
+   */
+  public Set<String> getAttendees() {
+    return attendees;
+  }
+
+  /**
+   * Returns the occurrences that overlap {@code window}, in order. Occurrences outside the window
+   * are skipped arithmetically, never created. Occurrences without any duration are left out.
+   */
+  public List<EpochRange> occurrences(EpochRange window) {
+    List<EpochRange> occurrences = new ArrayList<EpochRange>();
+    long duration = first.duration();
+    if (duration <= 0 || window.duration() <= 0) {
+      return occurrences;
+    }
+
+    // Occurrence i covers [first + i * period, first + i * period + duration), so the ones that
+    // overlap the window are a contiguous run of indexes.
+    long period = intervalDays * EpochRange.MINUTES_PER_DAY;
+    long from = Math.max(0, Math.floorDiv(window.start() - duration - first.start(), period) + 1);
+    long to = Math.floorDiv(window.end() - 1 - first.start(), period);
+    for (long i = from; i <= to; i++) {
+      long start = first.start() + i * period;
+      long epochDay = Math.floorDiv(start, EpochRange.MINUTES_PER_DAY);
+      if (epochDay >= untilEpochDay) {
+        break;
+      }
+      if (!exceptions.contains(epochDay)) {
+        occurrences.add(EpochRange.fromStartDuration(start, duration));
+      }
+    }
+    return occurrences;
+  }
+}
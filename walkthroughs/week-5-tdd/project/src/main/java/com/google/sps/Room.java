@@ -0,0 +1,77 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * A meeting room that can be booked like an attendee: events that list the room's name among
+ * their attendees make the room busy. Rooms are read-only.
+ */
+public final class Room {
+  private final String name;
+  private final int capacity;
+
+  /**
+   * Creates a new room.
+   *
+   * @param name The unique name of the room, as it appears among event attendees. Must be
+   *     non-null.
+   * @param capacity The number of people the room can hold. Must be positive.
+   */
+  public Room(String name, int capacity) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+
+    this.name = name;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Returns the name of this room.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns how many people this room can hold.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof Room && equals(this, (Room) other);
+  }
+
+  @Override
+  public int hashCode() {
+    return name.hashCode() * 31 + capacity;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s (%d people)", name, capacity);
+  }
+
+  private static boolean equals(Room a, Room b) {
+    return a.name.equals(b.name) && a.capacity == b.capacity;
+  }
+}
@@ -0,0 +1,204 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Read-only index over a set of rooms and their bookings. A booking is any event that lists the
+ * room's name among its attendees. Every room keeps its merged busy ranges sorted, so whether it
+ * is free during some range takes a binary search, and rooms are sorted by capacity, so rooms that
+ * are too small are never looked at.
+ */
+public final class RoomIndex {
+  // Sorted by capacity, then by name.
+  private final Room[] rooms;
+  private final int[] capacities;
+
+  // The bookings of every room, indexed by room name.
+  private final AttendeeIndex bookings;
+
+  private RoomIndex(Room[] rooms, AttendeeIndex bookings) {
+    this.rooms = rooms;
+    this.capacities = new int[rooms.length];
+    for (int i = 0; i < rooms.length; i++) {
+      capacities[i] = rooms[i].getCapacity();
+    }
+    this.bookings = bookings;
+  }
+
+  /**
+   * Builds an index over {@code rooms}, taking their bookings out of {@code events}. Events that
+   * don't book any of the rooms are ignored. Room names must be unique.
+   */
+  public static RoomIndex of(Collection<Room> rooms, Collection<Event> events) {
+    if (rooms == null) {
+      throw new IllegalArgumentException("rooms cannot be null");
+    }
+
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+
+    Set<String> names = new HashSet<>();
+    for (Room room : rooms) {
+      if (!names.add(room.getName())) {
+        throw new IllegalArgumentException("duplicate room " + room.getName());
+      }
+    }
+
+    List<Event> bookings = new ArrayList<>();
+    for (Event event : events) {
+      for (String attendee : event.getAttendees()) {
+        if (names.contains(attendee)) {
+          bookings.add(event);
+          break;
+        }
+      }
+    }
+
+    Room[] sorted = rooms.toArray(new Room[0]);
+    Arrays.sort(sorted, (a, b) -> a.getCapacity() != b.getCapacity()
+        ? Integer.compare(a.getCapacity(), b.getCapacity())
+        : a.getName().compareTo(b.getName()));
+    return new RoomIndex(sorted, AttendeeIndex.of(bookings));
+  }
+
+  /**
+   * Returns the number of rooms in this index.
+   */
+  public int size() {
+    return rooms.length;
+  }
+
+  /**
+   * Returns whether {@code room} has no booking that overlaps {@code when}.
+   */
+  public boolean isFree(Room room, TimeRange when) {
+    int[] busy = bookings.busyRangesOf(room.getName());
+    int i = firstEndingAfter(busy, when.start());
+    // Empty bookings don't take up any minute, so skip over them.
+    while (i < busy.length && busy[i] == busy[i + 1]) {
+      i += 2;
+    }
+    return i == busy.length || busy[i] >= when.end() || when.duration() == 0;
+  }
+
+  /**
+   * Returns, for every range in {@code slots}, the parts of it during which rooms that hold at
+   * least {@code capacity} people are free for at least {@code duration} minutes. Each part comes
+   * with every such room that is free for all of it, smallest first. Parts are ordered by start and
+   * end, so a room that is free for a whole slot shows up next to the rooms that are only free for
+   * some of it. Slots may overlap, for example when they are fragments of one free range, but a
+   * part and a room that come up in more than one slot are only returned once.
+   */
+  public List<RoomOption> roomsDuring(Collection<TimeRange> slots, int duration, int capacity) {
+    // A zero minute meeting still needs a non-empty gap to happen in.
+    final int minimumGap = Math.max(duration, 1);
+    final int firstLargeEnough = firstWithCapacity(capacity);
+
+    // Every part keeps the indexes of its rooms in one set, so overlapping slots can't list a room
+    // twice and the rooms stay sorted by capacity.
+    TreeMap<Long, BitSet> parts = new TreeMap<>();
+    for (TimeRange slot : slots) {
+      for (int r = firstLargeEnough; r < rooms.length; r++) {
+        addFreeParts(r, slot.start(), slot.end(), minimumGap, parts);
+      }
+    }
+
+    List<RoomOption> options = new ArrayList<>(parts.size());
+    for (Map.Entry<Long, BitSet> part : parts.entrySet()) {
+      BitSet roomIndexes = part.getValue();
+      List<Room> partRooms = new ArrayList<>(roomIndexes.cardinality());
+      for (int r = roomIndexes.nextSetBit(0); r >= 0; r = roomIndexes.nextSetBit(r + 1)) {
+        partRooms.add(rooms[r]);
+      }
+      options.add(new RoomOption(PackedRange.toTimeRange(part.getKey()), partRooms));
+    }
+    return options;
+  }
+
+  /**
+   * Adds the room at index {@code room} to {@code parts} under every range within
+   * [{@code start}, {@code end}) of at least {@code minimumGap} minutes during which the room is
+   * free, keyed by the packed range.
+   */
+  private void addFreeParts(
+      int room, int start, int end, int minimumGap, Map<Long, BitSet> parts) {
+    int[] busy = bookings.busyRangesOf(rooms[room].getName());
+    int freeStart = start;
+    for (int i = firstEndingAfter(busy, start); i < busy.length && busy[i] < end; i += 2) {
+      if (busy[i] == busy[i + 1]) {
+        continue;
+      }
+      if (busy[i] - freeStart >= minimumGap) {
+        addPart(parts, freeStart, busy[i], room);
+      }
+      freeStart = Math.max(freeStart, busy[i + 1]);
+    }
+    if (end - freeStart >= minimumGap) {
+      addPart(parts, freeStart, end, room);
+    }
+  }
+
+  private static void addPart(Map<Long, BitSet> parts, int start, int end, int room) {
+    parts.computeIfAbsent(PackedRange.fromStartEnd(start, end), key -> new BitSet()).set(room);
+  }
+
+  /**
+   * Returns the index of the first range in {@code busy}, given as merged flat start/end pairs,
+   * that ends after {@code time}, or the length of {@code busy} if there is none.
+   */
+  private static int firstEndingAfter(int[] busy, int time) {
+    // Merged ranges never overlap, so their ends are sorted as well.
+    int low = 0;
+    int high = busy.length / 2;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (busy[2 * middle + 1] <= time) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return 2 * low;
+  }
+
+  /**
+   * Returns the index of the first room that holds at least {@code capacity} people, or the number
+   * of rooms if none does.
+   */
+  private int firstWithCapacity(int capacity) {
+    int low = 0;
+    int high = capacities.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (capacities[middle] < capacity) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
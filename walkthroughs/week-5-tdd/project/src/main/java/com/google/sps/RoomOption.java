@@ -0,0 +1,81 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A range of time in which a meeting can be held, together with the rooms that are free for all
+ * of it and large enough for everyone invited. Options are read-only.
+ */
+public final class RoomOption {
+  private final TimeRange when;
+  private final List<Room> rooms;
+
+  /**
+   * Creates a new option.
+   *
+   * @param when The range in which the meeting can be held. Must be non-null.
+   * @param rooms The rooms that are free for the whole range. Must be non-null.
+   */
+  public RoomOption(TimeRange when, Collection<Room> rooms) {
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+
+    if (rooms == null) {
+      throw new IllegalArgumentException("rooms cannot be null. Use empty array instead.");
+    }
+
+    this.when = when;
+    this.rooms = new ArrayList<>(rooms);
+  }
+
+  /**
+   * Returns the {@code TimeRange} in which the meeting can be held.
+   */
+  public TimeRange getWhen() {
+    return when;
+  }
+
+  /**
+   * Returns a read-only list of the rooms that are free for the whole range, smallest first.
+   */
+  public List<Room> getRooms() {
+    return Collections.unmodifiableList(rooms);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof RoomOption && equals(this, (RoomOption) other);
+  }
+
+  @Override
+  public int hashCode() {
+    return when.hashCode() * 31 + rooms.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s in %s", when, rooms);
+  }
+
+  private static boolean equals(RoomOption a, RoomOption b) {
+    return a.when.equals(b.when) && a.rooms.equals(b.rooms);
+  }
+}
@@ -0,0 +1,181 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+
+/**
+ * The hours of the day during which an attendee is willing to meet, in their own time zone. The
+ * window is converted to the UTC day that the rest of the scheduler works in once, so queries can
+ * treat the time outside of it like any other busy time. Working hours are read-only.
+ */
+public final class WorkingHours {
+  private static final int MINUTES = TimeRange.WHOLE_DAY.duration();
+
+  // UTC offsets range from -12:00 to +14:00.
+  private static final int MIN_UTC_OFFSET = -12 * 60;
+  private static final int MAX_UTC_OFFSET = 14 * 60;
+
+  // The working window in local minutes of the day, from start to exclusive end.
+  private final int start;
+  private final int end;
+
+  // The minutes to add to UTC to get the local time, e.g. -300 for UTC-05:00.
+  private final int utc_offset;
+
+  // The working window and the time outside of it as UTC flat start/end pairs. Gson doesn't run
+  // constructors, so these are filled in on first use for hours parsed from JSON. {@code working}
+  // is written last, so a thread that sees it also sees the other two.
+  private transient volatile int[] working;
+  private transient int[] offHours;
+  private transient DayMask offHoursMask;
+
+  /**
+   * Creates working hours from {@code start} to {@code end}, exclusive, in local minutes of the
+   * day, for someone whose local time is {@code utcOffset} minutes ahead of UTC.
+   */
+  public WorkingHours(int start, int end, int utcOffset) {
+    checkValid(start, end, utcOffset);
+    this.start = start;
+    this.end = end;
+    this.utc_offset = utcOffset;
+    precompute();
+  }
+
+  /**
+   * Returns the start of the working window in local minutes of the day.
+   */
+  public int getStart() {
+    return start;
+  }
+
+  /**
+   * Returns the exclusive end of the working window in local minutes of the day.
+   */
+  public int getEnd() {
+    return end;
+  }
+
+  /**
+   * Returns how many minutes the local time is ahead of UTC.
+   */
+  public int getUtcOffset() {
+    return utc_offset;
+  }
+
+  /**
+   * Returns the working window in the UTC day as sorted flat start/end pairs. A window that
+   * crosses UTC midnight comes back as two ranges. The array is shared, so callers must not
+   * change it.
+   */
+  int[] workingRanges() {
+    precompute();
+    return working;
+  }
+
+  /**
+   * Returns the parts of the UTC day outside of the working window as sorted flat start/end
+   * pairs. The array is shared, so callers must not change it.
+   */
+  int[] offHoursRanges() {
+    precompute();
+    return offHours;
+  }
+
+  /**
+   * Returns the parts of the UTC day outside of the working window as a mask. The mask is
+   * shared, so callers must only read it.
+   */
+  DayMask offHoursMask() {
+    precompute();
+    return offHoursMask;
+  }
+
+  /**
+   * Throws {@code IllegalArgumentException} if these hours, which may have been parsed from JSON
+   * without going through the constructor, are invalid.
+   */
+  void checkValid() {
+    precompute();
+  }
+
+  private static void checkValid(int start, int end, int utcOffset) {
+    if (start < TimeRange.START_OF_DAY || end > MINUTES || start >= end) {
+      throw new IllegalArgumentException("working hours must be a non-empty range of the day");
+    }
+
+    if (utcOffset < MIN_UTC_OFFSET || utcOffset > MAX_UTC_OFFSET) {
+      throw new IllegalArgumentException("utcOffset must be between -12:00 and +14:00");
+    }
+  }
+
+  private void precompute() {
+    if (working != null) {
+      return;
+    }
+
+    // Hours parsed from JSON are only checked here, before anything is derived from them.
+    checkValid(start, end, utc_offset);
+
+    int utcStart = Math.floorMod(start - utc_offset, MINUTES);
+    int utcEnd = utcStart + (end - start);
+    int[] working = utcEnd <= MINUTES
+        ? new int[] {utcStart, utcEnd}
+        : new int[] {TimeRange.START_OF_DAY, utcEnd - MINUTES, utcStart, MINUTES};
+
+    int[] offHours = new int[working.length + 2];
+    int length = 0;
+    int offStart = TimeRange.START_OF_DAY;
+    for (int i = 0; i < working.length; i += 2) {
+      if (offStart < working[i]) {
+        offHours[length++] = offStart;
+        offHours[length++] = working[i];
+      }
+      offStart = working[i + 1];
+    }
+    if (offStart < MINUTES) {
+      offHours[length++] = offStart;
+      offHours[length++] = MINUTES;
+    }
+
+    DayMask offHoursMask = new DayMask();
+    for (int i = 0; i < length; i += 2) {
+      offHoursMask.setBusy(offHours[i], offHours[i + 1]);
+    }
+
+    this.offHours = Arrays.copyOf(offHours, length);
+    this.offHoursMask = offHoursMask;
+    this.working = working;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof WorkingHours)) {
+      return false;
+    }
+    WorkingHours hours = (WorkingHours) other;
+    return start == hours.start && end == hours.end && utc_offset == hours.utc_offset;
+  }
+
+  @Override
+  public int hashCode() {
+    return (31 * start + end) * 31 + utc_offset;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Working hours: [%d, %d) at UTC%+d minutes", start, end, utc_offset);
+  }
+}
@@ -0,0 +1,97 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.JsonParseException;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Answers a JSON array of meeting requests in one call. The requests are evaluated in parallel
+ * against the calendar store and cache shared with {@code QueryServlet}, and the response is an
+ * array with the options for each request, in request order. Batches run on a dedicated, bounded
+ * pool, and only a few at a time, so a burst of batches can't starve the other endpoints. When
+ * too many batches are running, the client gets a 503 and is asked to retry.
+ */
+@WebServlet("/batch-query")
+public class BatchQueryServlet extends HttpServlet {
+  // Larger batches are rejected, so one call can't hold the pool for long.
+  private static final int MAX_BATCH_SIZE = 256;
+
+  private static final int MAX_CONCURRENT_BATCHES = 4;
+
+  private static final String RETRY_AFTER_SECONDS = "1";
+
+  private static final ForkJoinPool POOL =
+      new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+  private static final Semaphore BATCHES = new Semaphore(MAX_CONCURRENT_BATCHES);
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    // Convert the JSON to instances of MeetingRequest.
+    MeetingRequest[] meetingRequests;
+    try {
+      meetingRequests = Json.read(request, MeetingRequest[].class);
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected an array of requests.");
+      return;
+    }
+    if (meetingRequests == null || Arrays.asList(meetingRequests).contains(null)) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected an array of requests.");
+      return;
+    }
+    if (meetingRequests.length > MAX_BATCH_SIZE) {
+      response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+          "A batch may hold at most " + MAX_BATCH_SIZE + " requests.");
+      return;
+    }
+    try {
+      for (MeetingRequest meetingRequest : meetingRequests) {
+        meetingRequest.validate();
+      }
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+
+    if (!BATCHES.tryAcquire()) {
+      response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+      response.sendError(
+          HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many batches, try again later.");
+      return;
+    }
+    List<Collection<TimeRange>> answers;
+    try {
+      // Find the possible meeting times for every request.
+      answers = QueryServlet.CACHE.queryAll(Arrays.asList(meetingRequests), POOL);
+    } finally {
+      BATCHES.release();
+    }
+
+    // Send the times back as JSON
+    Json.write(response, answers);
+  }
+}
@@ -14,23 +14,202 @@
 
 package com.google.sps.servlets;
 
+import com.google.sps.Event;
 import com.google.sps.Events;
-import com.google.gson.Gson;
+import com.google.sps.TimeRange;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.zip.GZIPOutputStream;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+/**
+ * Returns the events of the calendar as a JSON array. The optional {@code start} and {@code end}
+ * parameters, in minutes, only return the events that overlap that window, and one or more
+ * {@code attendee} parameters only return the events of those people, ordered by start.
+ *
+ * <p>The calendar doesn't change while the server runs, so the unfiltered answer is serialized
+ * and gzipped once up front, and every answer carries an {@code ETag}. A client that polls with
+ * {@code If-None-Match} gets a bodyless 304 until the calendar changes.
+ */
 @WebServlet("/get-events")
 public class GetEventsServlet extends HttpServlet {
+  private static final Snapshot ALL_EVENTS =
+      new Snapshot(Json.GSON.toJson(Events.events).getBytes(StandardCharsets.UTF_8));
+
+  /**
+   * A response body that is serialized once and then served as is.
+   */
+  private static final class Snapshot {
+    private final byte[] json;
+    private final byte[] gzippedJson;
+    private final String etag;
+
+    private Snapshot(byte[] json) {
+      this.json = json;
+      this.gzippedJson = gzip(json);
+      this.etag = '"' + digest(json) + '"';
+    }
+  }
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-    String jsonResponse = gson.toJson(Events.events);
+    String start = request.getParameter("start");
+    String end = request.getParameter("end");
+    String[] attendees = request.getParameterValues("attendee");
+    if (start == null && end == null && attendees == null) {
+      serve(ALL_EVENTS, request, response);
+      return;
+    }
+
+    int windowStart;
+    int windowEnd;
+    try {
+      windowStart = start == null ? TimeRange.START_OF_DAY : Integer.parseInt(start);
+      windowEnd = end == null ? TimeRange.WHOLE_DAY.end() : Integer.parseInt(end);
+    } catch (NumberFormatException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "start and end must be minutes.");
+      return;
+    }
+    if (windowEnd < windowStart) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "end cannot come before start.");
+      return;
+    }
+    TimeRange window = TimeRange.fromStartEnd(windowStart, windowEnd, false);
+
+    // Filtered answers only depend on the calendar and the filter, so the tag can be checked
+    // before looking at any event.
+    String filter = window.start() + "-" + window.end()
+        + (attendees == null ? "" : ":" + new TreeSet<>(Arrays.asList(attendees)));
+    String etag = '"' + digest((ALL_EVENTS.etag + filter).getBytes(StandardCharsets.UTF_8)) + '"';
+    response.setHeader("ETag", etag);
+    response.setHeader("Cache-Control", "no-cache");
+    if (matches(request.getHeader("If-None-Match"), etag)) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+
+    List<Event> events;
+    if (attendees == null) {
+      events = Events.SOURCE.eventsDuring(window);
+    } else {
+      events = new ArrayList<>(Events.SOURCE.busyFor(Arrays.asList(attendees), window));
+      events.sort(Comparator.comparingInt(event -> event.getWhen().start()));
+    }
+    Json.write(response, events);
+  }
+
+  private static void serve(Snapshot snapshot, HttpServletRequest request,
+      HttpServletResponse response) throws IOException {
+    response.setHeader("ETag", snapshot.etag);
+    response.setHeader("Cache-Control", "no-cache");
+    response.setHeader("Vary", "Accept-Encoding");
+    if (matches(request.getHeader("If-None-Match"), snapshot.etag)) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
 
-    // Send the JSON back as the response
     response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    response.setCharacterEncoding("UTF-8");
+    byte[] body = snapshot.json;
+    if (acceptsGzip(request.getHeader("Accept-Encoding"))) {
+      response.setHeader("Content-Encoding", "gzip");
+      body = snapshot.gzippedJson;
+    }
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+  }
+
+  /**
+   * Returns whether the {@code Accept-Encoding} header {@code acceptEncoding} allows a gzipped
+   * body. An explicit {@code gzip} coding wins over the {@code *} wildcard, and a coding with
+   * {@code q=0}, or a malformed weight, is not acceptable.
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    boolean wildcard = false;
+    for (String element : acceptEncoding.split(",")) {
+      String[] parts = element.split(";");
+      String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+      if (coding.equals("gzip")) {
+        return weightOf(parts) > 0;
+      }
+      if (coding.equals("*")) {
+        wildcard = weightOf(parts) > 0;
+      }
+    }
+    return wildcard;
+  }
+
+  /**
+   * Returns the {@code q} weight among the parameters of one coding, where {@code parts[0]} is
+   * the coding itself. The weight is 1 if absent and 0 if malformed.
+   */
+  private static double weightOf(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String parameter = parts[i].trim();
+      if (parameter.length() >= 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+        // An empty value fails to parse like any other malformed one.
+        try {
+          return Double.parseDouble(parameter.substring(2).trim());
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+
+  /**
+   * Returns whether the {@code If-None-Match} header {@code ifNoneMatch} lists {@code etag}.
+   */
+  private static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      candidate = candidate.trim();
+      // A weak tag still means the client holds the same content.
+      if (candidate.startsWith("W/")) {
+        candidate = candidate.substring(2);
+      }
+      if (candidate.equals("*") || candidate.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static byte[] gzip(byte[] bytes) {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+      gzip.write(bytes);
+    } catch (IOException e) {
+      throw new IllegalStateException("could not gzip in memory", e);
+    }
+    return buffer.toByteArray();
+  }
+
+  private static String digest(byte[] bytes) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("every JVM must support SHA-256", e);
+    }
   }
 }
@@ -0,0 +1,89 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.JsonParseException;
+import com.google.sps.BusyHeatmap;
+import java.io.IOException;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Returns how many of a group of attendees are busy during each bucket of the day, from the
+ * calendar shared with {@code QueryServlet}. The request is a JSON object with the
+ * {@code attendees} and, optionally, {@code bucket_minutes}, which defaults to one minute. The
+ * response holds the {@code bucket_minutes}, the {@code attendee_count} and the {@code busy} count
+ * of every bucket.
+ */
+@WebServlet("/heatmap")
+public class HeatmapServlet extends HttpServlet {
+  private static final int DEFAULT_BUCKET_MINUTES = 1;
+
+  /**
+   * The body of a heatmap request.
+   */
+  private static final class HeatmapRequest {
+    private List<String> attendees;
+    private int bucket_minutes;
+  }
+
+  /**
+   * The body of a heatmap response, with the same key style as the request.
+   */
+  private static final class HeatmapResponse {
+    private final int bucket_minutes;
+    private final int attendee_count;
+    private final int[] busy;
+
+    private HeatmapResponse(BusyHeatmap heatmap) {
+      this.bucket_minutes = heatmap.getBucketMinutes();
+      this.attendee_count = heatmap.getAttendeeCount();
+      this.busy = new int[heatmap.size()];
+      for (int bucket = 0; bucket < busy.length; bucket++) {
+        busy[bucket] = heatmap.busyCount(bucket);
+      }
+    }
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    HeatmapRequest heatmapRequest;
+    try {
+      heatmapRequest = Json.read(request, HeatmapRequest.class);
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected a list of attendees.");
+      return;
+    }
+    if (heatmapRequest == null || heatmapRequest.attendees == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected a list of attendees.");
+      return;
+    }
+
+    int bucketMinutes = heatmapRequest.bucket_minutes == 0
+        ? DEFAULT_BUCKET_MINUTES : heatmapRequest.bucket_minutes;
+    BusyHeatmap heatmap;
+    try {
+      heatmap = BusyHeatmap.of(QueryServlet.CALENDAR, heatmapRequest.attendees, bucketMinutes);
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+
+    Json.write(response, new HeatmapResponse(heatmap));
+  }
+}
@@ -0,0 +1,61 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Reads requests and writes responses as JSON straight from and to the servlet streams, so no
+ * body is ever held as a whole string.
+ */
+final class Json {
+  // Gson is thread-safe, so every servlet shares one instead of building its own per request.
+  static final Gson GSON = new Gson();
+
+  private Json() {}
+
+  /**
+   * Parses the body of {@code request} as a {@code type}. Returns null if the body is empty.
+   *
+   * @throws com.google.gson.JsonParseException if the body isn't a valid {@code type}
+   */
+  static <T> T read(HttpServletRequest request, Class<T> type) throws IOException {
+    return GSON.fromJson(new JsonReader(request.getReader()), type);
+  }
+
+  /**
+   * Writes {@code value} as the JSON body of {@code response}.
+   */
+  static void write(HttpServletResponse response, Object value) throws IOException {
+    write(response, value, value.getClass());
+  }
+
+  /**
+   * Writes {@code value}, of the generic {@code type}, as the JSON body of {@code response}.
+   */
+  static void write(HttpServletResponse response, Object value, Type type) throws IOException {
+    response.setContentType("application/json");
+    response.setCharacterEncoding("UTF-8");
+    JsonWriter writer = new JsonWriter(response.getWriter());
+    GSON.toJson(value, type, writer);
+    writer.flush();
+  }
+}
@@ -0,0 +1,43 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.QueryCache;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Exports the counters of the cache in front of {@code QueryServlet} as a JSON object.
+ */
+@WebServlet("/query-cache-stats")
+public class QueryCacheStatsServlet extends HttpServlet {
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    QueryCache cache = QueryServlet.CACHE;
+    Map<String, Long> stats = new LinkedHashMap<>();
+    stats.put("size", (long) cache.size());
+    stats.put("hits", cache.getHitCount());
+    stats.put("misses", cache.getMissCount());
+    stats.put("evictions", cache.getEvictionCount());
+    stats.put("invalidations", cache.getInvalidationCount());
+
+    Json.write(response, stats);
+  }
+}
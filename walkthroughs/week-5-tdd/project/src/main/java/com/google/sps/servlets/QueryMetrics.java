@@ -0,0 +1,92 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for how queries on {@code /query} fare: how long they wait for a thread, how long they
+ * take to answer, and how many get turned away. Safe to update from many threads at once.
+ */
+final class QueryMetrics {
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder expired = new LongAdder();
+  private final LongAdder totalQueueWaitNanos = new LongAdder();
+  private final LongAdder totalExecutionNanos = new LongAdder();
+  private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+  private final LongAccumulator maxExecutionNanos = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records a query that waited {@code queueWaitNanos} for a thread and then took
+   * {@code executionNanos} to answer.
+   */
+  void recordCompleted(long queueWaitNanos, long executionNanos) {
+    completed.increment();
+    totalQueueWaitNanos.add(queueWaitNanos);
+    totalExecutionNanos.add(executionNanos);
+    maxQueueWaitNanos.accumulate(queueWaitNanos);
+    maxExecutionNanos.accumulate(executionNanos);
+  }
+
+  /**
+   * Records a query that was turned away because the queue was full.
+   */
+  void recordRejected() {
+    rejected.increment();
+  }
+
+  /**
+   * Records a query that wasn't answered before its deadline.
+   */
+  void recordExpired() {
+    expired.increment();
+  }
+
+  long getCompletedCount() {
+    return completed.sum();
+  }
+
+  long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  long getExpiredCount() {
+    return expired.sum();
+  }
+
+  long getAverageQueueWaitMicros() {
+    return average(totalQueueWaitNanos);
+  }
+
+  long getMaxQueueWaitMicros() {
+    return TimeUnit.NANOSECONDS.toMicros(maxQueueWaitNanos.get());
+  }
+
+  long getAverageExecutionMicros() {
+    return average(totalExecutionNanos);
+  }
+
+  long getMaxExecutionMicros() {
+    return TimeUnit.NANOSECONDS.toMicros(maxExecutionNanos.get());
+  }
+
+  private long average(LongAdder totalNanos) {
+    long count = completed.sum();
+    return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / count);
+  }
+}
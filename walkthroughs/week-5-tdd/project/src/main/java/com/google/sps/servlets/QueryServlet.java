@@ -14,38 +14,182 @@
 
 package com.google.sps.servlets;
 
+import com.google.sps.CalendarStore;
 import com.google.sps.Events;
 import com.google.sps.FindMeetingQuery;
 import com.google.sps.MeetingRequest;
+import com.google.sps.QueryCache;
 import com.google.sps.TimeRange;
-import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-@WebServlet("/query")
+/**
+ * Answers a meeting request. Queries run on a dedicated, bounded executor instead of the
+ * container's threads, so a burst of expensive queries can't starve the other endpoints. When the
+ * queue is full, or a query isn't answered before its deadline, the client gets a 503 and is asked
+ * to retry.
+ */
+@WebServlet(urlPatterns = "/query", asyncSupported = true)
 public class QueryServlet extends HttpServlet {
+  // Keeps every attendee's free time up to date, so that requests only intersect free lists.
+  static final CalendarStore CALENDAR = new CalendarStore(Arrays.asList(Events.events));
+
+  // Answers repeated requests without querying the calendar again, until it changes.
+  static final QueryCache CACHE = QueryCache.of(new FindMeetingQuery(), CALENDAR, 1024);
+
+  private static final int THREADS = Runtime.getRuntime().availableProcessors();
+  private static final int QUEUE_CAPACITY = 64;
+
+  // How long a query may take from arriving to being answered, including its time in the queue.
+  private static final long DEADLINE_MILLIS = 5000;
+
+  private static final String RETRY_AFTER_SECONDS = "1";
+
+  static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(THREADS, THREADS, 0,
+      TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(QUEUE_CAPACITY), runnable -> {
+        Thread thread = new Thread(runnable, "query");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  static final QueryMetrics METRICS = new QueryMetrics();
+
+  private static final Logger LOGGER = Logger.getLogger(QueryServlet.class.getName());
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
+    // Convert the JSON to an instance of MeetingRequest. Bad input is answered right here, so it
+    // never takes up a slot on the executor.
+    MeetingRequest meetingRequest;
+    try {
+      meetingRequest = Json.read(request, MeetingRequest.class);
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected a meeting request.");
+      return;
+    }
+    if (meetingRequest == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected a meeting request.");
+      return;
+    }
+    try {
+      meetingRequest.validate();
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+
+    long arrived = System.nanoTime();
+    AsyncContext async = request.startAsync();
+    async.setTimeout(DEADLINE_MILLIS);
+
+    // Set by whoever answers first: the query, the deadline or the rejection.
+    AtomicBoolean answered = new AtomicBoolean();
+    async.addListener(new AsyncListener() {
+      @Override
+      public void onTimeout(AsyncEvent event) throws IOException {
+        if (answered.compareAndSet(false, true)) {
+          METRICS.recordExpired();
+          sendUnavailable(response, "The query took too long, try again later.");
+          async.complete();
+        }
+      }
 
-    // Convert the JSON to an instance of MeetingRequest.
-    MeetingRequest meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
+      @Override
+      public void onComplete(AsyncEvent event) {}
 
-    // Find the possible meeting times.
-    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
-    Collection<TimeRange> answer =
-        findMeetingQuery.query(Arrays.asList(Events.events), meetingRequest);
+      @Override
+      public void onError(AsyncEvent event) {}
 
-    // Convert the times to JSON
-    String jsonResponse = gson.toJson(answer);
+      @Override
+      public void onStartAsync(AsyncEvent event) {}
+    });
+
+    try {
+      EXECUTOR.execute(() -> answer(meetingRequest, async, answered, arrived));
+    } catch (RejectedExecutionException e) {
+      answered.set(true);
+      METRICS.recordRejected();
+      sendUnavailable(response, "Too many queries, try again later.");
+      async.complete();
+    }
+  }
+
+  private static void answer(
+      MeetingRequest meetingRequest, AsyncContext async, AtomicBoolean answered, long arrived) {
+    // Don't spend time on a query whose client was already told it expired.
+    if (answered.get()) {
+      return;
+    }
+
+    long started = System.nanoTime();
+    HttpServletResponse response = (HttpServletResponse) async.getResponse();
+    Collection<TimeRange> answer;
+    try {
+      // Find the possible meeting times.
+      answer = CACHE.query(meetingRequest);
+    } catch (RuntimeException e) {
+      // The client gets a 500, so there is nothing left to rethrow on the pool thread.
+      LOGGER.log(Level.SEVERE, "Query failed", e);
+      if (answered.compareAndSet(false, true)) {
+        response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        async.complete();
+      }
+      return;
+    }
+    METRICS.recordCompleted(started - arrived, System.nanoTime() - started);
+
+    // The deadline may have passed while the query ran, in which case the client already got a 503.
+    if (!answered.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      // Send the times back as JSON
+      Json.write(response, answer);
+    } catch (IOException | JsonIOException e) {
+      // The client went away, there is nobody left to tell.
+    } finally {
+      async.complete();
+    }
+  }
+
+  /**
+   * Stops the executor when the container takes the servlet out of service, so a redeploy doesn't
+   * leave its threads behind. Queries that are already queued get until their deadline to finish.
+   */
+  @Override
+  public void destroy() {
+    EXECUTOR.shutdown();
+    try {
+      if (!EXECUTOR.awaitTermination(DEADLINE_MILLIS, TimeUnit.MILLISECONDS)) {
+        EXECUTOR.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      EXECUTOR.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
 
-    // Send the JSON back as the response
-    response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+  private static void sendUnavailable(HttpServletResponse response, String message)
+      throws IOException {
+    response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+    response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, message);
   }
 }
@@ -0,0 +1,49 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Exports the load on the executor behind {@code QueryServlet} and how queries fared, as a JSON
+ * object. Times are in microseconds.
+ */
+@WebServlet("/query-stats")
+public class QueryStatsServlet extends HttpServlet {
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    ThreadPoolExecutor executor = QueryServlet.EXECUTOR;
+    QueryMetrics metrics = QueryServlet.METRICS;
+    Map<String, Long> stats = new LinkedHashMap<>();
+    stats.put("queued", (long) executor.getQueue().size());
+    stats.put("running", (long) executor.getActiveCount());
+    stats.put("completed", metrics.getCompletedCount());
+    stats.put("rejected", metrics.getRejectedCount());
+    stats.put("expired", metrics.getExpiredCount());
+    stats.put("averageQueueWait", metrics.getAverageQueueWaitMicros());
+    stats.put("maxQueueWait", metrics.getMaxQueueWaitMicros());
+    stats.put("averageExecution", metrics.getAverageExecutionMicros());
+    stats.put("maxExecution", metrics.getMaxExecutionMicros());
+
+    Json.write(response, stats);
+  }
+}
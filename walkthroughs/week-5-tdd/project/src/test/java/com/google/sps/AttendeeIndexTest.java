@@ -0,0 +1,152 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeIndexTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  @Test
+  public void internsAttendeesToDenseIds() {
+    AttendeeIndex index = AttendeeIndex.of(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0830AM, false),
+            Arrays.asList(PERSON_A, PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_B))));
+
+    Assert.assertEquals(2, index.size());
+    Assert.assertEquals(PERSON_A, index.nameOf(index.idOf(PERSON_A)));
+    Assert.assertEquals(PERSON_B, index.nameOf(index.idOf(PERSON_B)));
+    Assert.assertEquals(AttendeeIndex.UNKNOWN_ATTENDEE, index.idOf(PERSON_C));
+  }
+
+  @Test
+  public void mergesOverlappingAndTouchingRanges() {
+    // Events  : |--A--|
+    //              |--A--|--A--|      |--A--|
+    AttendeeIndex index = AttendeeIndex.of(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0830AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0800AM + 15, 30),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_0800AM + 45, 15),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 4", TimeRange.fromStartEnd(TIME_1000AM, TIME_1000AM + 30, false),
+            Arrays.asList(PERSON_A))));
+
+    int id = index.idOf(PERSON_A);
+    Assert.assertEquals(2, index.busyCount(id));
+    Assert.assertEquals(TIME_0800AM, index.busyStart(id, 0));
+    Assert.assertEquals(TIME_0900AM, index.busyEnd(id, 0));
+    Assert.assertEquals(TIME_1000AM, index.busyStart(id, 1));
+    Assert.assertEquals(TIME_1000AM + 30, index.busyEnd(id, 1));
+  }
+
+  @Test
+  public void indexedQueryMatchesEventQuery() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    AttendeeIndex index = AttendeeIndex.of(events);
+
+    for (FindMeetingQuery.Strategy strategy : FindMeetingQuery.Strategy.values()) {
+      FindMeetingQuery query = new FindMeetingQuery(strategy);
+      for (int duration : new int[] {15, 30, 60, 120}) {
+        MeetingRequest request = new MeetingRequest(
+            Arrays.asList("Amelia", "Logan", "Somebody New"), duration);
+        request.addOptionalAttendee("Isabella");
+        request.addOptionalAttendee("Oliver");
+        Assert.assertEquals(query.query(events, request), query.query(index, request));
+      }
+    }
+  }
+
+  @Test
+  public void batchQueryKeepsRequestOrder() {
+    AttendeeIndex index = AttendeeIndex.of(Arrays.asList(Events.events));
+    FindMeetingQuery query = new FindMeetingQuery();
+    String[] people = {"Amelia", "Ava", "Emma", "Isabella", "James", "Liam", "Logan", "Noah"};
+
+    List<MeetingRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      requests.add(new MeetingRequest(
+          Arrays.asList(people[i % people.length], people[(i * 3) % people.length]),
+          15 * (1 + i % 8)));
+    }
+
+    List<Collection<TimeRange>> answers = query.queryAll(index, requests);
+
+    Assert.assertEquals(requests.size(), answers.size());
+    for (int i = 0; i < requests.size(); i++) {
+      Assert.assertEquals(query.query(index, requests.get(i)), answers.get(i));
+    }
+  }
+
+  @Test
+  public void limitedQueryReturnsPrefixOfFullQuery() {
+    Random random = new Random(3);
+    String[] people = {"A", "B", "C", "D", "E", "F"};
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 80; i++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      int duration = Math.min(random.nextInt(60), TimeRange.WHOLE_DAY.end() - start);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          Arrays.asList(people[random.nextInt(people.length)])));
+    }
+    AttendeeIndex index = AttendeeIndex.of(events);
+
+    for (FindMeetingQuery.Strategy strategy : FindMeetingQuery.Strategy.values()) {
+      FindMeetingQuery query = new FindMeetingQuery(strategy);
+      for (int i = 0; i < 30; i++) {
+        MeetingRequest request = new MeetingRequest(
+            Arrays.asList(people[random.nextInt(people.length)]), 15 + random.nextInt(45));
+        request.addOptionalAttendee(people[random.nextInt(people.length)]);
+        List<TimeRange> all = new ArrayList<>(query.query(index, request));
+
+        for (int limit = 1; limit <= 3; limit++) {
+          request.setMaxOptions(limit);
+          Assert.assertEquals(all.subList(0, Math.min(limit, all.size())),
+              query.query(index, request));
+          Assert.assertEquals(all.subList(0, Math.min(limit, all.size())),
+              query.query(events, request));
+        }
+        request.setMaxOptions(0);
+
+        List<TimeRange> lazy = new ArrayList<>();
+        for (Iterator<TimeRange> options = query.options(index, request); options.hasNext(); ) {
+          lazy.add(options.next());
+        }
+        Assert.assertEquals(all, lazy);
+      }
+    }
+  }
+}
@@ -0,0 +1,117 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BusyHeatmapTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0810AM = TimeRange.getTimeInMinutes(8, 10);
+  private static final int TIME_0820AM = TimeRange.getTimeInMinutes(8, 20);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  @Test
+  public void countsEachAttendeeOncePerBucket() {
+    // Person A : |--A--|  |--A--|
+    //            |-----A-----|
+    // Person B :       |--B--|
+    // Buckets  : |--------30--------|
+    AttendeeIndex index = AttendeeIndex.of(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0810AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0820AM, TIME_0830AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0800AM, TIME_0820AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 4", TimeRange.fromStartEnd(TIME_0810AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_B))));
+
+    BusyHeatmap heatmap =
+        BusyHeatmap.of(index, Arrays.asList(PERSON_A, PERSON_B, PERSON_C, PERSON_A), 30);
+
+    Assert.assertEquals(3, heatmap.getAttendeeCount());
+    Assert.assertEquals(48, heatmap.size());
+    Assert.assertEquals(TIME_0830AM, heatmap.bucketStart(TIME_0830AM / 30));
+    Assert.assertEquals(0, heatmap.busyCount(TIME_0800AM / 30 - 1));
+    Assert.assertEquals(2, heatmap.busyCount(TIME_0800AM / 30));
+    Assert.assertEquals(1, heatmap.busyCount(TIME_0830AM / 30));
+    Assert.assertEquals(0, heatmap.busyCount(TIME_0900AM / 30));
+  }
+
+  @Test
+  public void matchesPerMinuteCount() {
+    Random random = new Random(20);
+    String[] people = new String[40];
+    for (int i = 0; i < people.length; i++) {
+      people[i] = "Person " + i;
+    }
+
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      int start = random.nextInt(24 * 60);
+      int duration = random.nextInt(Math.min(120, 24 * 60 - start) + 1);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          Arrays.asList(people[random.nextInt(people.length)],
+              people[random.nextInt(people.length)])));
+    }
+    AttendeeIndex index = AttendeeIndex.of(events);
+    CalendarStore store = new CalendarStore(events);
+
+    for (int bucketMinutes : new int[] {1, 7, 15, 60, 1440}) {
+      BusyHeatmap heatmap = BusyHeatmap.of(index, Arrays.asList(people), bucketMinutes);
+      BusyHeatmap fromStore = BusyHeatmap.of(store, Arrays.asList(people), bucketMinutes);
+      for (int bucket = 0; bucket < heatmap.size(); bucket++) {
+        int bucketStart = heatmap.bucketStart(bucket);
+        int bucketEnd = Math.min(bucketStart + bucketMinutes, 24 * 60);
+        int expected = 0;
+        for (String person : people) {
+          expected += isBusy(events, person, bucketStart, bucketEnd) ? 1 : 0;
+        }
+        Assert.assertEquals(expected, heatmap.busyCount(bucket));
+        Assert.assertEquals(expected, fromStore.busyCount(bucket));
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsEmptyBuckets() {
+    BusyHeatmap.of(AttendeeIndex.of(new ArrayList<Event>()), Arrays.asList(PERSON_A), 0);
+  }
+
+  private static boolean isBusy(List<Event> events, String person, int start, int end) {
+    for (Event event : events) {
+      if (event.getAttendees().contains(person)
+          && event.getWhen().start() < end && event.getWhen().end() > start
+          && event.getWhen().duration() > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,147 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CalendarSourceTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final Event SHARED = new Event("Shared",
+      TimeRange.fromStartEnd(TIME_0800AM, TIME_0830AM, false), Arrays.asList(PERSON_A, PERSON_B));
+  private static final Event LONG = new Event("Long",
+      TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false), Arrays.asList(PERSON_B));
+  private static final Event LATE = new Event("Late",
+      TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false), Arrays.asList(PERSON_A));
+  private static final Event EMPTY = new Event("Empty",
+      TimeRange.fromStartDuration(TIME_0830AM, 0), Arrays.asList(PERSON_A));
+  private static final Event OTHER = new Event("Other",
+      TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false), Arrays.asList(PERSON_C));
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void onlyReturnsOverlappingEventsOfRequestedAttendees() {
+    CalendarSource source =
+        new InMemoryCalendarSource(Arrays.asList(SHARED, LONG, LATE, EMPTY, OTHER));
+
+    // The long event started before the window, the shared one must only be returned once and the
+    // empty one makes nobody busy.
+    Collection<Event> actual = source.busyFor(Arrays.asList(PERSON_A, PERSON_B),
+        TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(LONG)), new HashSet<>(actual));
+
+    actual = source.busyFor(Arrays.asList(PERSON_A, PERSON_B), TimeRange.WHOLE_DAY);
+    Assert.assertEquals(3, actual.size());
+    Assert.assertEquals(new HashSet<>(Arrays.asList(SHARED, LONG, LATE)), new HashSet<>(actual));
+  }
+
+  @Test
+  public void inMemorySourceMatchesFilter() {
+    Random random = new Random(15);
+    String[] people = {PERSON_A, PERSON_B, PERSON_C};
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      int start = random.nextInt(24 * 60);
+      int duration = random.nextInt(Math.min(180, 24 * 60 - start) + 1);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          Arrays.asList(people[random.nextInt(people.length)])));
+    }
+    InMemoryCalendarSource source = new InMemoryCalendarSource(events);
+
+    for (int i = 0; i < 100; i++) {
+      int start = random.nextInt(24 * 60);
+      TimeRange window = TimeRange.fromStartDuration(start, random.nextInt(24 * 60 - start + 1));
+      Collection<String> attendees = Arrays.asList(people[random.nextInt(people.length)]);
+
+      Collection<Event> expected = new HashSet<>();
+      for (Event event : events) {
+        if (event.getWhen().duration() > 0 && window.duration() > 0
+            && event.getWhen().overlaps(window) && !Collections.disjoint(event.getAttendees(), attendees)) {
+          expected.add(event);
+        }
+      }
+      Assert.assertEquals(expected, new HashSet<>(source.busyFor(attendees, window)));
+
+      Collection<Event> during = new HashSet<>();
+      for (Event event : events) {
+        if (event.getWhen().duration() > 0 && window.duration() > 0
+            && event.getWhen().overlaps(window)) {
+          during.add(event);
+        }
+      }
+      Assert.assertEquals(during, new HashSet<>(source.eventsDuring(window)));
+    }
+  }
+
+  @Test
+  public void fileSourceReadsEventsInGetEventsFormat() throws IOException {
+    File file = folder.newFile("events.json");
+    Files.write(file.toPath(),
+        new Gson().toJson(Events.events).getBytes(StandardCharsets.UTF_8));
+    CalendarSource source = new FileCalendarSource(file.toPath());
+
+    Collection<String> attendees = Arrays.asList("Amelia", "Noah");
+    TimeRange window = TimeRange.fromStartEnd(TimeRange.getTimeInMinutes(10, 0),
+        TimeRange.getTimeInMinutes(14, 0), false);
+    Assert.assertEquals(new HashSet<>(Events.SOURCE.busyFor(attendees, window)),
+        new HashSet<>(source.busyFor(attendees, window)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void fileSourceRejectsEventsWithoutAttendees() throws IOException {
+    File file = folder.newFile("events.json");
+    String json = "[{\"title\": \"Event 1\", \"when\": {\"start\": 0, \"duration\": 30}}]";
+    Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+
+    new FileCalendarSource(file.toPath()).busyFor(Arrays.asList(PERSON_A), TimeRange.WHOLE_DAY);
+  }
+
+  @Test
+  public void queryOnSourceMatchesEventQuery() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Amelia", "Logan"), 30);
+    request.addOptionalAttendee("Noah");
+    Assert.assertEquals(query.query(events, request), query.query(Events.SOURCE, request));
+  }
+}
@@ -0,0 +1,96 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CalendarStoreTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+
+  @Test
+  public void removingAnEventOnlyFreesUncoveredTime() {
+    // Events  : |----A----|
+    //                |----A----|
+    Event first = new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_A));
+    Event second = new Event("Event 2", TimeRange.fromStartEnd(TIME_0830AM, TIME_0930AM, false),
+        Arrays.asList(PERSON_A, PERSON_B));
+    CalendarStore store = new CalendarStore(Arrays.asList(first, second));
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0930AM, TimeRange.END_OF_DAY, true)),
+        store.freeRangesOf(PERSON_A));
+
+    Assert.assertTrue(store.remove(second));
+    Assert.assertFalse(store.remove(second));
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true)),
+        store.freeRangesOf(PERSON_A));
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), store.freeRangesOf(PERSON_B));
+  }
+
+  @Test
+  public void queryMatchesEventQueryAfterChanges() {
+    Random random = new Random(7);
+    String[] people = {"A", "B", "C", "D", "E", "F"};
+    List<Event> events = new ArrayList<>();
+    CalendarStore store = new CalendarStore();
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    for (int step = 0; step < 300; step++) {
+      if (!events.isEmpty() && random.nextInt(3) == 0) {
+        Event removed = events.remove(random.nextInt(events.size()));
+        Assert.assertTrue(store.remove(removed));
+      } else {
+        int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+        int duration = random.nextInt(120);
+        Event event = new Event("Event " + step, TimeRange.fromStartDuration(start,
+            Math.min(duration, TimeRange.WHOLE_DAY.end() - start)),
+            Arrays.asList(people[random.nextInt(people.length)],
+                people[random.nextInt(people.length)]));
+        events.add(event);
+        store.add(event);
+      }
+
+      MeetingRequest request = new MeetingRequest(
+          Arrays.asList(people[random.nextInt(people.length)]), 15 + random.nextInt(60));
+      request.addOptionalAttendee(people[random.nextInt(people.length)]);
+      request.addOptionalAttendee(people[random.nextInt(people.length)]);
+      Assert.assertEquals(query.query(events, request), query.query(store, request));
+
+      request.setMaximizeOptionalAttendees(true);
+      Assert.assertEquals(
+          query.queryWithCoverage(events, request), query.queryWithCoverage(store, request));
+    }
+  }
+}
@@ -0,0 +1,78 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class DayMaskTest {
+  @Test
+  public void emptyMaskIsFreeAllDay() {
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.WHOLE_DAY);
+    Assert.assertEquals(expected, new DayMask().freeRanges(30));
+  }
+
+  @Test
+  public void rangesAcrossWordBoundaries() {
+    DayMask mask = new DayMask();
+    mask.setBusy(TimeRange.fromStartEnd(60, 130, false));
+
+    Assert.assertFalse(mask.isBusy(59));
+    Assert.assertTrue(mask.isBusy(60));
+    Assert.assertTrue(mask.isBusy(64));
+    Assert.assertTrue(mask.isBusy(128));
+    Assert.assertTrue(mask.isBusy(129));
+    Assert.assertFalse(mask.isBusy(130));
+  }
+
+  @Test
+  public void rangesOutsideOfTheDayAreClipped() {
+    DayMask mask = new DayMask();
+    mask.setBusy(-30, 30);
+    mask.setBusy(TimeRange.END_OF_DAY - 9, TimeRange.END_OF_DAY + 60);
+
+    Collection<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(30, TimeRange.END_OF_DAY - 9, false));
+    Assert.assertEquals(expected, mask.freeRanges(1));
+  }
+
+  @Test
+  public void orCombinesMasksAndSkipsShortGaps() {
+    DayMask a = new DayMask();
+    a.setBusy(100, 200);
+    DayMask b = new DayMask();
+    b.setBusy(210, 300);
+    b.setBusy(1000, 1100);
+
+    DayMask busy = new DayMask();
+    busy.or(a);
+    busy.or(b);
+
+    // The 10 minute gap between 200 and 210 is too short for a 30 minute meeting.
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.fromStartEnd(0, 100, false),
+        TimeRange.fromStartEnd(300, 1000, false),
+        TimeRange.fromStartEnd(1100, TimeRange.END_OF_DAY, true));
+    Assert.assertEquals(expected, busy.freeRanges(30));
+
+    busy.clear();
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), busy.freeRanges(30));
+  }
+}
@@ -0,0 +1,64 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fake {@code CalendarSource} for tests that answers from an in-memory source after a fixed
+ * delay, or fails, like a remote calendar backend would.
+ */
+final class DelayedCalendarSource implements CalendarSource {
+  private final CalendarSource source;
+  private final long delayMillis;
+  private final boolean fails;
+
+  private DelayedCalendarSource(CalendarSource source, long delayMillis, boolean fails) {
+    this.source = source;
+    this.delayMillis = delayMillis;
+    this.fails = fails;
+  }
+
+  /**
+   * Returns a source that answers from {@code events} after {@code delay}.
+   */
+  static DelayedCalendarSource of(Collection<Event> events, long delay, TimeUnit unit) {
+    return new DelayedCalendarSource(
+        new InMemoryCalendarSource(events), unit.toMillis(delay), false);
+  }
+
+  /**
+   * Returns a source that throws after {@code delay}.
+   */
+  static DelayedCalendarSource failing(long delay, TimeUnit unit) {
+    return new DelayedCalendarSource(null, unit.toMillis(delay), true);
+  }
+
+  @Override
+  public Collection<Event> busyFor(Collection<String> attendees, TimeRange window) {
+    try {
+      Thread.sleep(delayMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("interrupted while waiting", e);
+    }
+
+    if (fails) {
+      throw new IllegalStateException("calendar backend is unavailable");
+    }
+    return source.busyFor(attendees, window);
+  }
+}
@@ -0,0 +1,168 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventCalendarTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  // 2020-01-01 as days since the epoch.
+  private static final long DAY_1 = 18262;
+  private static final long DAY_2 = DAY_1 + 1;
+  private static final long DAY_3 = DAY_1 + 2;
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1700PM = TimeRange.getTimeInMinutes(17, 0);
+
+  @Test
+  public void overlappingMatchesLinearScan() {
+    Random random = new Random(42);
+    List<EpochEvent> events = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      long start = DAY_1 * EpochRange.MINUTES_PER_DAY + random.nextInt(30 * 24 * 60);
+      events.add(new EpochEvent("Event " + i,
+          EpochRange.fromStartDuration(start, random.nextInt(3 * 24 * 60)),
+          Arrays.asList(PERSON_A)));
+    }
+    EventCalendar calendar = EventCalendar.of(events);
+
+    for (int i = 0; i < 100; i++) {
+      long start = DAY_1 * EpochRange.MINUTES_PER_DAY + random.nextInt(30 * 24 * 60);
+      EpochRange window = EpochRange.fromStartDuration(start, 1 + random.nextInt(5 * 24 * 60));
+
+      Collection<EpochEvent> expected = new HashSet<>();
+      for (EpochEvent event : events) {
+        if (event.getWhen().duration() > 0 && event.getWhen().start() < window.end()
+            && window.start() < event.getWhen().end()) {
+          expected.add(event);
+        }
+      }
+      Assert.assertEquals(expected, new HashSet<>(calendar.overlapping(window)));
+    }
+  }
+
+  @Test
+  public void queryAcrossSeveralDays() {
+    // A works 9:00 to 17:00 every day. B is on a trip from day 1 at noon until day 2 at noon.
+    List<EpochEvent> events = new ArrayList<>();
+    for (long day = DAY_1 - 365; day <= DAY_3 + 365; day++) {
+      events.add(new EpochEvent("Work", EpochRange.fromDay(day,
+          TimeRange.fromStartEnd(TIME_0900AM, TIME_1700PM, false)), Arrays.asList(PERSON_A)));
+    }
+    events.add(new EpochEvent("Trip", EpochRange.fromStartEnd(
+        DAY_1 * EpochRange.MINUTES_PER_DAY + 12 * 60, DAY_2 * EpochRange.MINUTES_PER_DAY + 12 * 60,
+        false), Arrays.asList(PERSON_B)));
+    EventCalendar calendar = EventCalendar.of(events);
+
+    EpochRange horizon = EpochRange.fromStartEnd(
+        DAY_1 * EpochRange.MINUTES_PER_DAY, DAY_3 * EpochRange.MINUTES_PER_DAY, false);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 60);
+
+    Collection<EpochRange> actual = new FindMeetingQuery().query(calendar, request, horizon);
+    Collection<EpochRange> expected = Arrays.asList(
+        EpochRange.fromStartEnd(DAY_1 * EpochRange.MINUTES_PER_DAY,
+            DAY_1 * EpochRange.MINUTES_PER_DAY + TIME_0900AM, false),
+        EpochRange.fromStartEnd(DAY_2 * EpochRange.MINUTES_PER_DAY + TIME_1700PM,
+            DAY_3 * EpochRange.MINUTES_PER_DAY, false));
+    Assert.assertEquals(expected, actual);
+
+    // B is free from the end of the trip until the end of this longer horizon, which leaves room
+    // for a meeting that is longer than a day.
+    MeetingRequest longRequest = new MeetingRequest(Arrays.asList(PERSON_B), 36 * 60);
+    Collection<EpochRange> longOptions = new FindMeetingQuery().query(calendar, longRequest,
+        EpochRange.fromStartEnd(DAY_1 * EpochRange.MINUTES_PER_DAY,
+            (DAY_3 + 2) * EpochRange.MINUTES_PER_DAY, false));
+    Assert.assertEquals(Arrays.asList(EpochRange.fromStartEnd(
+        DAY_2 * EpochRange.MINUTES_PER_DAY + 12 * 60, (DAY_3 + 2) * EpochRange.MINUTES_PER_DAY,
+        false)), longOptions);
+  }
+
+  @Test
+  public void recurringOccurrencesMatchExpandedEvents() {
+    Random random = new Random(21);
+    for (int i = 0; i < 50; i++) {
+      long firstStart = DAY_1 * EpochRange.MINUTES_PER_DAY + random.nextInt(24 * 60);
+      int intervalDays = 1 + random.nextInt(10);
+      long until = DAY_1 + random.nextInt(200);
+      long skipped = DAY_1 + intervalDays * random.nextInt(20);
+      RecurringEvent rule = RecurringEvent.everyNDays("Rule " + i,
+          EpochRange.fromStartDuration(firstStart, 1 + random.nextInt(3 * 24 * 60)),
+          intervalDays, Arrays.asList(PERSON_A)).until(until).except(skipped);
+
+      long windowStart = (DAY_1 - 5) * EpochRange.MINUTES_PER_DAY + random.nextInt(200 * 24 * 60);
+      EpochRange window = EpochRange.fromStartDuration(windowStart, random.nextInt(30 * 24 * 60));
+
+      List<EpochRange> expected = new ArrayList<>();
+      for (long start = firstStart; start / EpochRange.MINUTES_PER_DAY < until;
+          start += intervalDays * EpochRange.MINUTES_PER_DAY) {
+        EpochRange occurrence = EpochRange.fromStartDuration(start, rule.getFirst().duration());
+        if (start / EpochRange.MINUTES_PER_DAY != skipped && window.duration() > 0
+            && occurrence.start() < window.end() && window.start() < occurrence.end()) {
+          expected.add(occurrence);
+        }
+      }
+      Assert.assertEquals(expected, rule.occurrences(window));
+    }
+  }
+
+  @Test
+  public void queryWithRecurringEvents() {
+    // A works 9:00 to 17:00 every day, forever, except on day 2.
+    EventCalendar calendar = EventCalendar.of(new ArrayList<EpochEvent>(),
+        Arrays.asList(RecurringEvent.daily("Work", EpochRange.fromDay(DAY_1 - 365,
+            TimeRange.fromStartEnd(TIME_0900AM, TIME_1700PM, false)), Arrays.asList(PERSON_A))
+            .except(DAY_2)));
+
+    EpochRange horizon = EpochRange.fromStartEnd(
+        DAY_1 * EpochRange.MINUTES_PER_DAY, (DAY_3 + 1) * EpochRange.MINUTES_PER_DAY, false);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 60);
+
+    Collection<EpochRange> actual = new FindMeetingQuery().query(calendar, request, horizon);
+    Collection<EpochRange> expected = Arrays.asList(
+        EpochRange.fromStartEnd(DAY_1 * EpochRange.MINUTES_PER_DAY,
+            DAY_1 * EpochRange.MINUTES_PER_DAY + TIME_0900AM, false),
+        EpochRange.fromStartEnd(DAY_1 * EpochRange.MINUTES_PER_DAY + TIME_1700PM,
+            DAY_3 * EpochRange.MINUTES_PER_DAY + TIME_0900AM, false),
+        EpochRange.fromStartEnd(DAY_3 * EpochRange.MINUTES_PER_DAY + TIME_1700PM,
+            (DAY_3 + 1) * EpochRange.MINUTES_PER_DAY, false));
+    Assert.assertEquals(expected, actual);
+    Assert.assertEquals(2, calendar.overlapping(horizon).size());
+  }
+
+  @Test
+  public void epochRangeOnDay() {
+    EpochRange range = EpochRange.fromStartEnd(
+        DAY_1 * EpochRange.MINUTES_PER_DAY + 22 * 60, DAY_2 * EpochRange.MINUTES_PER_DAY + 60,
+        false);
+
+    Assert.assertEquals(
+        TimeRange.fromStartEnd(22 * 60, TimeRange.END_OF_DAY, true), range.onDay(DAY_1));
+    Assert.assertEquals(TimeRange.fromStartEnd(0, 60, false), range.onDay(DAY_2));
+    Assert.assertNull(range.onDay(DAY_3));
+  }
+}
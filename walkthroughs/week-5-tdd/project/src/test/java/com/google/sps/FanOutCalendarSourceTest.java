@@ -0,0 +1,154 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class FanOutCalendarSourceTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  private static final Event EVENT_A = new Event("Event 1",
+      TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false), Arrays.asList(PERSON_A));
+  private static final Event EVENT_B = new Event("Event 2",
+      TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false), Arrays.asList(PERSON_B));
+
+  private static final long TIMEOUT_MILLIS = 500;
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = FanOutCalendarSource.boundedExecutor(4, 16);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private FanOutCalendarSource fanOut(CalendarSource... sources) {
+    return new FanOutCalendarSource(
+        Arrays.asList(sources), executor, TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  @Test
+  public void fetchesSourcesConcurrently() {
+    FanOutCalendarSource source = fanOut(
+        DelayedCalendarSource.of(Arrays.asList(EVENT_A), 200, TimeUnit.MILLISECONDS),
+        DelayedCalendarSource.of(Arrays.asList(EVENT_B), 200, TimeUnit.MILLISECONDS),
+        DelayedCalendarSource.of(Arrays.asList(EVENT_A), 200, TimeUnit.MILLISECONDS));
+
+    long start = System.nanoTime();
+    Collection<Event> actual =
+        source.busyFor(Arrays.asList(PERSON_A, PERSON_B), TimeRange.WHOLE_DAY);
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    // One after another the three sources would take at least 600ms.
+    Assert.assertTrue("took " + elapsedMillis + "ms", elapsedMillis < TIMEOUT_MILLIS);
+    Assert.assertEquals(3, actual.size());
+    Assert.assertEquals(new HashSet<>(Arrays.asList(EVENT_A, EVENT_B)), new HashSet<>(actual));
+  }
+
+  @Test
+  public void handsOverEventsInArrivalOrder() {
+    FanOutCalendarSource source = fanOut(
+        DelayedCalendarSource.of(Arrays.asList(EVENT_B), 200, TimeUnit.MILLISECONDS),
+        DelayedCalendarSource.of(Arrays.asList(EVENT_A), 0, TimeUnit.MILLISECONDS));
+
+    List<Event> actual = new ArrayList<>();
+    boolean complete =
+        source.fetch(Arrays.asList(PERSON_A, PERSON_B), TimeRange.WHOLE_DAY, actual::addAll);
+
+    Assert.assertTrue(complete);
+    Assert.assertEquals(Arrays.asList(EVENT_A, EVENT_B), actual);
+  }
+
+  @Test
+  public void leavesOutSlowAndFailingSources() {
+    FanOutCalendarSource source = fanOut(
+        DelayedCalendarSource.of(Arrays.asList(EVENT_A), 0, TimeUnit.MILLISECONDS),
+        DelayedCalendarSource.of(Arrays.asList(EVENT_B), 5, TimeUnit.SECONDS),
+        DelayedCalendarSource.failing(0, TimeUnit.MILLISECONDS));
+
+    List<Event> actual = new ArrayList<>();
+    boolean complete =
+        source.fetch(Arrays.asList(PERSON_A, PERSON_B), TimeRange.WHOLE_DAY, actual::addAll);
+
+    Assert.assertFalse(complete);
+    Assert.assertEquals(Arrays.asList(EVENT_A), actual);
+    Assert.assertEquals(1, source.getTimeoutCount());
+    Assert.assertEquals(1, source.getFailureCount());
+  }
+
+  @Test
+  public void queryMatchesEventQuery() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    List<Event> firstHalf = new ArrayList<>(events).subList(0, events.size() / 2);
+    List<Event> secondHalf = new ArrayList<>(events).subList(events.size() / 2, events.size());
+    FanOutCalendarSource source = fanOut(
+        DelayedCalendarSource.of(firstHalf, 20, TimeUnit.MILLISECONDS),
+        DelayedCalendarSource.of(secondHalf, 0, TimeUnit.MILLISECONDS));
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Amelia", "Logan"), 30);
+    request.addOptionalAttendee("Noah");
+    Assert.assertEquals(new FanOutAnswer(query.query(events, request), true),
+        query.query(source, request));
+
+    request.setMaximizeOptionalAttendees(true);
+    Assert.assertEquals(new FanOutAnswer(query.query(events, request), true),
+        query.query(source, request));
+  }
+
+  @Test
+  public void queryReportsSourcesThatTimedOut() {
+    FanOutCalendarSource source = fanOut(
+        DelayedCalendarSource.of(Arrays.asList(EVENT_A), 0, TimeUnit.MILLISECONDS),
+        DelayedCalendarSource.of(Arrays.asList(EVENT_B), 5, TimeUnit.SECONDS));
+    FindMeetingQuery query = new FindMeetingQuery();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 60);
+
+    // The slow source's event is missing, so its time is offered even though B is busy then.
+    FanOutAnswer answer = query.query(source, request);
+    Assert.assertFalse(answer.isComplete());
+    Assert.assertEquals(query.query(Arrays.asList(EVENT_A), request), answer.getOptions());
+
+    // Requests that need every event first report the timeout as well.
+    request.setBufferMinutes(15);
+    answer = query.query(source, request);
+    Assert.assertFalse(answer.isComplete());
+    Assert.assertEquals(query.query(Arrays.asList(EVENT_A), request), answer.getOptions());
+  }
+}
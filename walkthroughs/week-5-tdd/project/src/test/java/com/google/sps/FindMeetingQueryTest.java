@@ -23,10 +23,11 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.junit.runners.JUnit4;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
 
-/** */
-@RunWith(JUnit4.class)
+/** Runs every test against each {@code FindMeetingQuery.Strategy} so they stay interchangeable. */
+@RunWith(Parameterized.class)
 public final class FindMeetingQueryTest {
   private static final Collection<Event> NO_EVENTS = Collections.emptySet();
   private static final Collection<String> NO_ATTENDEES = Collections.emptySet();
@@ -54,11 +55,25 @@ public final class FindMeetingQueryTest {
   private static final int DURATION_1_HOUR = 60;
   private static final int DURATION_2_HOUR = 120;
 
+  private final FindMeetingQuery.Strategy strategy;
   private FindMeetingQuery query;
 
+  public FindMeetingQueryTest(FindMeetingQuery.Strategy strategy) {
+    this.strategy = strategy;
+  }
+
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> strategies() {
+    Collection<Object[]> strategies = new ArrayList<>();
+    for (FindMeetingQuery.Strategy strategy : FindMeetingQuery.Strategy.values()) {
+      strategies.add(new Object[] {strategy});
+    }
+    return strategies;
+  }
+
   @Before
   public void setUp() {
-    query = new FindMeetingQuery();
+    query = new FindMeetingQuery(strategy);
   }
 
   @Test
@@ -228,6 +243,30 @@ public final class FindMeetingQueryTest {
     Assert.assertEquals(expected, actual);
   }
 
+  @Test
+  public void lastOptionEndsWithTheDay() {
+    // Leave exactly one meeting's worth of time at the end of the day, and too little before it.
+    //
+    // Events  : |--------A--------|-|--A--|
+    // Day     : |---------------------------|
+    // Options :                         |---|
+
+    int lastStart = TimeRange.WHOLE_DAY.end() - DURATION_30_MINUTES;
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, lastStart - 60, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(lastStart - 45, lastStart, false),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(lastStart, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
   @Test
   public void ignoresPeopleNotAttending() {
     // Add an event, but make the only attendee someone different from the person looking to book
@@ -253,6 +292,32 @@ public final class FindMeetingQueryTest {
     Assert.assertEquals(expected, actual);
   }
 
+  @Test
+  public void overlappingEventsOfSamePersonAreMerged() {
+    // Events  : |----A----|
+    //              |-A-|   |--A--|
+    // Day     : |---------------------------|
+    // Options :          |-|     |----------|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0815AM, TIME_0830AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0915AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_15_MINUTES);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM, TIME_0915AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
   @Test
   public void notEnoughRoom() {
     // Have one person, but make it so that there is not enough room at any point in the day to
@@ -276,7 +341,7 @@ public final class FindMeetingQueryTest {
     Assert.assertEquals(expected, actual);
   }
 
-//   @Test
+  @Test
   public void optionalAttendeeBusyAllDay() {
     // Test that an optional attendee who is busy all day doesn't change the meeting options
     //
@@ -306,7 +371,7 @@ public final class FindMeetingQueryTest {
     Assert.assertEquals(expected, actual);
   }
 
-//   @Test
+  @Test
   public void optionalAttendeeCanAttend() {
     // Test that when an optional attendee can attend, the meeting options include them
     //
@@ -335,9 +400,8 @@ public final class FindMeetingQueryTest {
     Assert.assertEquals(expected, actual);
   }
 
-//   @Test
+  @Test
   public void optionalAttendeeNotEnoughTime() {
-    System.out.println("optionalAttendeeNotEnoughTime()");
     // Have an optional attendee that isn't available without the meeting duration being reduced.
     // This should cause the optional attendee to be excluded from the meeting.
     //
@@ -364,9 +428,8 @@ public final class FindMeetingQueryTest {
     Assert.assertEquals(expected, actual);
   }
 
-//   @Test
+  @Test
   public void optionalAttendeesOnlyAvailable() {
-      System.out.println("optionalAttendeesOnlyAvailable()");
     // Set up a meeting with only optional attendees that have several available times to meet.
     //
     // Events  :       |--A--|     |--A--|       optional attendee
@@ -391,6 +454,7 @@ public final class FindMeetingQueryTest {
 
     Collection<TimeRange> actual = query.query(events, request);
     Collection<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
         TimeRange.fromStartEnd(TIME_0815AM, TIME_0830AM, false),
         TimeRange.fromStartEnd(TIME_0915AM, TIME_0930AM, false),
         TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
@@ -398,9 +462,8 @@ public final class FindMeetingQueryTest {
     Assert.assertEquals(expected, actual);
   }
 
-//   @Test
+  @Test
   public void optionalAttendeesOnlyBusy() {
-      System.out.println("optionalAttendeesOnlyBusy()");
     // Set up a meeting with only optional attendees that aren't available to meet.
     //
     // Events  : |--A--|     |----A----|         optional attendee
@@ -428,5 +491,134 @@ public final class FindMeetingQueryTest {
 
     Assert.assertEquals(expected, actual);
   }
-}
 
+  @Test
+  public void maximizeOptionalAttendeesPicksBestCoverage() {
+    // No time fits both optional attendees. B is only free while A is busy, but C is free between
+    // 8:30 and 9:00, so that is the time that fits the most optional attendees.
+    //
+    // Events  :       |--A--|
+    //         : |--B--|     |--------B--------| optional attendee
+    //         : |-----C-----|     |-----C-----| optional attendee
+    // Day     : |-----------------------------|
+    // Options :             |-C-|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0830AM, false),
+            Arrays.asList(PERSON_C)),
+        new Event("Event 4", TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_C)),
+        new Event("Event 5", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 6", TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+    request.setMaximizeOptionalAttendees(true);
+
+    Collection<MeetingOption> actual = query.queryWithCoverage(events, request);
+    Collection<MeetingOption> expected = Arrays.asList(
+        new MeetingOption(TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES), 1));
+    Assert.assertEquals(expected, actual);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES)),
+        query.query(events, request));
+  }
+
+  @Test
+  public void maximizeOptionalAttendeesCountsEachAttendeeOnce() {
+    // B has two events close enough that a meeting could overlap both. B must only be counted
+    // as busy once for those starts, so A and C still fit around B's events.
+    //
+    // Events  :       |-B-| |-B-|              optional attendee
+    // Day     : |-----------------------------|
+    // Options : |--1--|           |-----2-----| with both optional attendees
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_15_MINUTES),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0830AM, DURATION_15_MINUTES),
+            Arrays.asList(PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+
+    Collection<MeetingOption> actual = query.queryWithCoverage(events, request);
+    Collection<MeetingOption> expected = Arrays.asList(
+        new MeetingOption(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false), 2),
+        new MeetingOption(TimeRange.fromStartEnd(TIME_0845AM, TimeRange.END_OF_DAY, true), 2));
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void maximizeOptionalAttendeesWithoutAnyoneFree() {
+    MeetingRequest request = new MeetingRequest(NO_ATTENDEES, DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_A);
+    request.setMaximizeOptionalAttendees(true);
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_A)));
+
+    Assert.assertEquals(Arrays.asList(), query.query(events, request));
+  }
+
+  @Test
+  public void maxOptionsReturnsEarliestOptions() {
+    // Events  :       |--A--|     |--B--|
+    // Day     : |-----------------------------|
+    // Options : |--1--|     |--2--|     |--3--|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+    request.setMaxOptions(1);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false)),
+        query.query(events, request));
+
+    request.setMaxOptions(2);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false)),
+        query.query(events, request));
+  }
+
+  @Test
+  public void maxOptionsFallsBackToMandatoryAttendees() {
+    // Events  :       |--A--|     |--A--|
+    //         : |--------------C--------------| optional attendee
+    // Day     : |-----------------------------|
+    // Options : |--1--|     |--2--|     |--3--|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_C)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_C);
+    request.setMaxOptions(2);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false)),
+        query.query(events, request));
+  }
+}
@@ -14,6 +14,7 @@
 
 package com.google.sps;
 
+import com.google.gson.Gson;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -44,4 +45,38 @@ public final class MeetingRequestTest {
     int expected = 0;
     Assert.assertEquals(expected, actual);
   }
-}
\ No newline at end of file
+
+  @Test(expected = IllegalArgumentException.class)
+  public void CantAskForNegativeNumberOfOptions() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.setMaxOptions(-1);
+  }
+
+  @Test
+  public void ValidateRejectsNegativeFieldsFromJson() {
+    // Gson fills the fields in directly, so only validate() sees these values.
+    String[] fields = {"\"duration\": -30", "\"max_options\": -1", "\"buffer_minutes\": -50",
+        "\"min_fragment_minutes\": -50"};
+    for (String field : fields) {
+      MeetingRequest request = new Gson().fromJson(
+          "{\"attendees\": [\"Person A\"], \"duration\": 30, " + field + "}",
+          MeetingRequest.class);
+      try {
+        request.validate();
+        Assert.fail("accepted " + field);
+      } catch (IllegalArgumentException e) {
+        // Expected.
+      }
+    }
+  }
+
+  @Test
+  public void ValidateAcceptsRequestFromJson() {
+    MeetingRequest request = new Gson().fromJson(
+        "{\"attendees\": [\"Person A\"], \"duration\": 30, \"buffer_minutes\": 10}",
+        MeetingRequest.class);
+    request.validate();
+
+    Assert.assertEquals(10, request.getBufferMinutes());
+  }
+}
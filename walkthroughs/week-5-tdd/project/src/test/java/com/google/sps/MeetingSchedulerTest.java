@@ -0,0 +1,130 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MeetingSchedulerTest {
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_0200PM = TimeRange.getTimeInMinutes(14, 0);
+  private static final int TIME_0600PM = TimeRange.getTimeInMinutes(18, 0);
+
+  private static final int DURATION_60_MINUTES = 60;
+
+  @Test
+  public void placesMostConstrainedRequestFirst() {
+    // A is only free 9:00-10:00 and 14:00-18:00, and B is busy 14:00-18:00.
+    CalendarStore store = new CalendarStore(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            Arrays.asList("A")),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1000AM, TIME_0200PM, false),
+            Arrays.asList("A")),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0600PM, TimeRange.END_OF_DAY, true),
+            Arrays.asList("A")),
+        new Event("Event 4", TimeRange.fromStartEnd(TIME_0200PM, TIME_0600PM, false),
+            Arrays.asList("B"))));
+    MeetingRequest flexible = new MeetingRequest(Arrays.asList("A"), DURATION_60_MINUTES);
+    MeetingRequest constrained = new MeetingRequest(Arrays.asList("A", "B"), DURATION_60_MINUTES);
+
+    // Placing the flexible request first at its earliest option would leave no room for the other.
+    MeetingScheduler.Result result =
+        new MeetingScheduler(store).schedule(Arrays.asList(flexible, constrained));
+
+    Assert.assertEquals(2, result.getPlacedCount());
+    Assert.assertEquals(TimeRange.fromStartDuration(TIME_0200PM, DURATION_60_MINUTES),
+        result.getPlacement(0).getWhen());
+    Assert.assertEquals(TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES),
+        result.getPlacement(1).getWhen());
+    Assert.assertTrue(store.contains(result.getPlacement(0)));
+    Assert.assertTrue(store.contains(result.getPlacement(1)));
+  }
+
+  @Test
+  public void reportsRequestsThatDoNotFit() {
+    CalendarStore store = new CalendarStore(Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0600PM, false), Arrays.asList("A"))));
+    List<MeetingRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      requests.add(new MeetingRequest(Arrays.asList("A"), DURATION_60_MINUTES));
+    }
+
+    MeetingScheduler.Result result = new MeetingScheduler(store).schedule(requests);
+
+    // Only six hours are left in the day.
+    Assert.assertEquals(6, result.getPlacedCount());
+    Assert.assertEquals(Arrays.asList(requests.get(6), requests.get(7)), result.getUnplaced());
+    Assert.assertNull(result.getPlacement(7));
+  }
+
+  @Test
+  public void addsOptionalAttendeesWhoAreFree() {
+    CalendarStore store = new CalendarStore(Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0600PM, false), Arrays.asList("C"))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList("A"), DURATION_60_MINUTES);
+    request.addOptionalAttendee("B");
+    request.addOptionalAttendee("C");
+
+    Event placement = new MeetingScheduler(store).schedule(Arrays.asList(request)).getPlacement(0);
+
+    Assert.assertEquals(TimeRange.fromStartDuration(TIME_0600PM, DURATION_60_MINUTES),
+        placement.getWhen());
+    Assert.assertEquals(3, placement.getAttendees().size());
+  }
+
+  @Test
+  public void placementsNeverCollide() {
+    // Few enough people that many requests share attendees.
+    Random random = new Random(25);
+    List<MeetingRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      List<String> attendees = new ArrayList<>();
+      for (int j = 0; j < 2 + random.nextInt(6); j++) {
+        attendees.add("Person " + random.nextInt(500));
+      }
+      requests.add(new MeetingRequest(attendees, 15 + 15 * random.nextInt(8)));
+    }
+    CalendarStore store = new CalendarStore();
+
+    MeetingScheduler.Result result = new MeetingScheduler(store).schedule(requests);
+
+    List<Event> placed = new ArrayList<>();
+    for (int i = 0; i < requests.size(); i++) {
+      Event placement = result.getPlacement(i);
+      if (placement == null) {
+        continue;
+      }
+      Assert.assertTrue(placement.getAttendees().containsAll(requests.get(i).getAttendees()));
+      for (Event other : placed) {
+        if (other.getWhen().overlaps(placement.getWhen())) {
+          for (String attendee : other.getAttendees()) {
+            Assert.assertFalse(placement.getAttendees().contains(attendee));
+          }
+        }
+      }
+      placed.add(placement);
+    }
+    Assert.assertEquals(requests.size(), result.getPlacedCount() + result.getUnplaced().size());
+  }
+}
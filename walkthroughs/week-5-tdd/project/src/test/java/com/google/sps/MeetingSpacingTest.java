@@ -0,0 +1,263 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MeetingSpacingTest {
+  private static final int TIME_0845AM = TimeRange.getTimeInMinutes(8, 45);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1015AM = TimeRange.getTimeInMinutes(10, 15);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  private static final List<Event> EVENTS = Arrays.asList(new Event("Event 1",
+      TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false), Arrays.asList("A")));
+
+  @Test
+  public void bufferWidensBusyTime() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList("A"), DURATION_30_MINUTES);
+    request.setBufferMinutes(15);
+
+    for (FindMeetingQuery.Strategy strategy : FindMeetingQuery.Strategy.values()) {
+      Collection<TimeRange> expected = Arrays.asList(
+          TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0845AM, false),
+          TimeRange.fromStartEnd(TIME_1015AM, TimeRange.END_OF_DAY, true));
+      Assert.assertEquals(expected, new FindMeetingQuery(strategy).query(EVENTS, request));
+    }
+  }
+
+  @Test
+  public void bufferDoesNotApplyToEdgesOfDay() {
+    List<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(DURATION_60_MINUTES, TimeRange.END_OF_DAY, true),
+        Arrays.asList("A")));
+    MeetingRequest request = new MeetingRequest(Arrays.asList("A"), DURATION_30_MINUTES);
+    request.setBufferMinutes(DURATION_30_MINUTES);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartDuration(0, DURATION_30_MINUTES)),
+        new FindMeetingQuery().query(events, request));
+  }
+
+  @Test
+  public void minFragmentSplitsFreeRange() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList("A"), DURATION_30_MINUTES);
+    request.setMinFragmentMinutes(DURATION_60_MINUTES);
+
+    // The meeting sits flush against either end of a free range or leaves an hour on both sides.
+    Collection<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartDuration(TimeRange.START_OF_DAY, DURATION_30_MINUTES),
+        TimeRange.fromStartEnd(DURATION_60_MINUTES, TIME_0900AM - DURATION_60_MINUTES, false),
+        TimeRange.fromStartEnd(TIME_0900AM - DURATION_30_MINUTES, TIME_0900AM, false),
+        TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES),
+        TimeRange.fromStartEnd(TIME_1000AM + DURATION_60_MINUTES,
+            TimeRange.END_OF_DAY + 1 - DURATION_60_MINUTES, false),
+        TimeRange.fromStartEnd(TimeRange.END_OF_DAY + 1 - DURATION_30_MINUTES,
+            TimeRange.END_OF_DAY, true));
+    Assert.assertEquals(expected, new FindMeetingQuery().query(EVENTS, request));
+  }
+
+  @Test
+  public void minFragmentRulesOutTightFit() {
+    List<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            Arrays.asList("A")),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM + 40, TimeRange.END_OF_DAY, true),
+            Arrays.asList("A")));
+    MeetingRequest request = new MeetingRequest(Arrays.asList("A"), DURATION_30_MINUTES);
+    request.setMinFragmentMinutes(15);
+
+    // Any placement in the 40 minute gap leaves less than 15 minutes on one side.
+    Assert.assertEquals(Arrays.asList(), new FindMeetingQuery().query(events, request));
+
+    request.setMinFragmentMinutes(5);
+    Assert.assertEquals(Arrays.asList(
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+        TimeRange.fromStartDuration(TIME_0900AM + 5, DURATION_30_MINUTES),
+        TimeRange.fromStartDuration(TIME_0900AM + 10, DURATION_30_MINUTES)),
+        new FindMeetingQuery().query(events, request));
+  }
+
+  @Test
+  public void coverageHonorsBuffer() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList("A"), DURATION_30_MINUTES);
+    request.addOptionalAttendee("B");
+    request.setMaximizeOptionalAttendees(true);
+    request.setBufferMinutes(15);
+
+    Collection<MeetingOption> expected = Arrays.asList(
+        new MeetingOption(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0845AM, false), 1),
+        new MeetingOption(TimeRange.fromStartEnd(TIME_1015AM, TimeRange.END_OF_DAY, true), 1));
+    Assert.assertEquals(expected, new FindMeetingQuery().queryWithCoverage(EVENTS, request));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsNegativeBuffer() {
+    new MeetingRequest(Arrays.asList("A"), DURATION_30_MINUTES).setBufferMinutes(-1);
+  }
+
+  @Test
+  public void everyQueryMatchesMinuteByMinuteReference() {
+    Random random = new Random(23);
+    String[] people = {"A", "B", "C", "D", "E"};
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      int duration = Math.min(random.nextInt(90), TimeRange.WHOLE_DAY.end() - start);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          Arrays.asList(people[random.nextInt(people.length)])));
+    }
+    AttendeeIndex index = AttendeeIndex.of(events);
+    PackedEventStore packed = PackedEventStore.of(events);
+    CalendarStore store = new CalendarStore(events);
+
+    for (int i = 0; i < 40; i++) {
+      MeetingRequest request = new MeetingRequest(
+          Arrays.asList(people[random.nextInt(people.length)]), 15 + random.nextInt(60));
+      request.addOptionalAttendee(people[random.nextInt(people.length)]);
+      request.setBufferMinutes(random.nextInt(30));
+      request.setMinFragmentMinutes(random.nextInt(60));
+      TreeSet<Integer> expected = referenceStarts(events, request);
+
+      for (FindMeetingQuery.Strategy strategy : FindMeetingQuery.Strategy.values()) {
+        FindMeetingQuery query = new FindMeetingQuery(strategy);
+        Collection<TimeRange> options = query.query(events, request);
+        Assert.assertEquals(expected, startsOf(options, request));
+        Assert.assertEquals(options, query.query(index, request));
+        Assert.assertEquals(options, query.query(packed, request));
+        Assert.assertEquals(options, query.query(store, request));
+
+        List<TimeRange> lazy = new ArrayList<>();
+        for (Iterator<TimeRange> it = query.options(index, request); it.hasNext(); ) {
+          lazy.add(it.next());
+        }
+        Assert.assertEquals(options, lazy);
+      }
+    }
+  }
+
+  @Test
+  public void multiDayQueryMatchesSingleDay() {
+    Random random = new Random(230);
+    String[] people = {"A", "B", "C"};
+    List<Event> events = new ArrayList<>();
+    List<EpochEvent> epochEvents = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      int duration = Math.min(random.nextInt(90), TimeRange.WHOLE_DAY.end() - start);
+      TimeRange when = TimeRange.fromStartDuration(start, duration);
+      List<String> attendees = Arrays.asList(people[random.nextInt(people.length)]);
+      events.add(new Event("Event " + i, when, attendees));
+      epochEvents.add(new EpochEvent("Event " + i, EpochRange.fromDay(0, when), attendees));
+    }
+    EventCalendar calendar = EventCalendar.of(epochEvents);
+    EpochRange horizon = EpochRange.fromDay(0, TimeRange.WHOLE_DAY);
+
+    // With a horizon of one day, the edges of the horizon are the edges of the day.
+    for (int i = 0; i < 40; i++) {
+      MeetingRequest request = new MeetingRequest(
+          Arrays.asList(people[random.nextInt(people.length)]), 15 + random.nextInt(60));
+      request.addOptionalAttendee(people[random.nextInt(people.length)]);
+      request.setBufferMinutes(random.nextInt(30));
+      request.setMinFragmentMinutes(random.nextInt(60));
+
+      List<TimeRange> actual = new ArrayList<>();
+      for (EpochRange option : new FindMeetingQuery().query(calendar, request, horizon)) {
+        actual.add(option.onDay(0));
+      }
+      Assert.assertEquals(new FindMeetingQuery().query(events, request), actual);
+    }
+  }
+
+  /**
+   * Returns every start minute that some option in {@code options} allows.
+   */
+  private static TreeSet<Integer> startsOf(
+      Collection<TimeRange> options, MeetingRequest request) {
+    TreeSet<Integer> starts = new TreeSet<>();
+    for (TimeRange option : options) {
+      for (int start = option.start(); start + request.getDuration() <= option.end(); start++) {
+        starts.add(start);
+      }
+    }
+    return starts;
+  }
+
+  /**
+   * Checks every start minute by hand: the buffered busy time must leave room for the meeting,
+   * and the free time left on either side must be empty or at least the minimum fragment.
+   */
+  private static TreeSet<Integer> referenceStarts(List<Event> events, MeetingRequest request) {
+    List<String> everyone = new ArrayList<>(request.getAttendees());
+    everyone.addAll(request.getOptionalAttendees());
+    TreeSet<Integer> starts = referenceStarts(events, everyone, request);
+    return starts.isEmpty() ? referenceStarts(events, request.getAttendees(), request) : starts;
+  }
+
+  private static TreeSet<Integer> referenceStarts(
+      List<Event> events, Collection<String> attendees, MeetingRequest request) {
+    final int dayLength = TimeRange.WHOLE_DAY.duration();
+    final int buffer = request.getBufferMinutes();
+    final int fragment = request.getMinFragmentMinutes();
+    boolean[] busy = new boolean[dayLength];
+    for (Event event : events) {
+      if (event.getWhen().duration() == 0
+          || !attendees.containsAll(event.getAttendees())) {
+        continue;
+      }
+      int from = Math.max(event.getWhen().start() - buffer, 0);
+      int to = Math.min(event.getWhen().end() + buffer, dayLength);
+      Arrays.fill(busy, from, to, true);
+    }
+
+    TreeSet<Integer> starts = new TreeSet<>();
+    for (int start = 0; start + request.getDuration() <= dayLength; start++) {
+      int end = start + (int) request.getDuration();
+      boolean free = true;
+      for (int minute = start; minute < end && free; minute++) {
+        free = !busy[minute];
+      }
+      if (!free) {
+        continue;
+      }
+      int left = 0;
+      while (start - left > 0 && !busy[start - left - 1]) {
+        left++;
+      }
+      int right = 0;
+      while (end + right < dayLength && !busy[end + right]) {
+        right++;
+      }
+      if ((left == 0 || left >= fragment) && (right == 0 || right >= fragment)) {
+        starts.add(start);
+      }
+    }
+    return starts;
+  }
+}
@@ -0,0 +1,100 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class PackedEventStoreTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  @Test
+  public void packsEventsInOrder() {
+    PackedEventStore events = PackedEventStore.of(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0830AM, false),
+            Arrays.asList(PERSON_A, PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_B))));
+
+    Assert.assertEquals(2, events.size());
+    Assert.assertEquals(2, events.attendeeCount());
+    Assert.assertEquals(TIME_0800AM, events.start(0));
+    Assert.assertEquals(TIME_0830AM, events.end(0));
+    Assert.assertEquals(TIME_0900AM, events.start(1));
+    Assert.assertEquals(TIME_1000AM, events.end(1));
+    Assert.assertArrayEquals(new int[] {0, 2, 3}, events.attendeeOffsets());
+    Assert.assertEquals(PERSON_B, events.nameOf(events.attendeeIds()[2]));
+    Assert.assertEquals(PackedEventStore.UNKNOWN_ATTENDEE, events.idOf(PERSON_C));
+  }
+
+  @Test
+  public void packedQueryMatchesEventQuery() {
+    Random random = new Random(11);
+    String[] people = {"A", "B", "C", "D", "E", "F", "G", "H"};
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 60; i++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      int duration = Math.min(random.nextInt(90), TimeRange.WHOLE_DAY.end() - start);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          Arrays.asList(people[random.nextInt(people.length)],
+              people[random.nextInt(people.length)])));
+    }
+    PackedEventStore packed = PackedEventStore.of(events);
+
+    for (FindMeetingQuery.Strategy strategy : FindMeetingQuery.Strategy.values()) {
+      FindMeetingQuery query = new FindMeetingQuery(strategy);
+      for (int i = 0; i < 50; i++) {
+        MeetingRequest request = new MeetingRequest(
+            Arrays.asList(people[random.nextInt(people.length)], "Somebody New"),
+            15 + random.nextInt(60));
+        request.addOptionalAttendee(people[random.nextInt(people.length)]);
+        request.addOptionalAttendee(people[random.nextInt(people.length)]);
+        Assert.assertEquals(query.query(events, request), query.query(packed, request));
+
+        request.setMaximizeOptionalAttendees(true);
+        Assert.assertEquals(query.queryWithCoverage(events, request),
+            query.queryWithCoverage(packed, request));
+      }
+    }
+  }
+
+  @Test
+  public void optionalOnlyRequestMatchesEventQuery() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    PackedEventStore packed = PackedEventStore.of(events);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    MeetingRequest request = new MeetingRequest(Arrays.<String>asList(), 60);
+    request.addOptionalAttendee("Amelia");
+    request.addOptionalAttendee("Logan");
+    Assert.assertEquals(query.query(events, request), query.query(packed, request));
+  }
+}
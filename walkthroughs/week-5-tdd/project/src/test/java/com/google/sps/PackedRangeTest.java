@@ -0,0 +1,92 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class PackedRangeTest {
+  @Test
+  public void packsStartAndEnd() {
+    long range = PackedRange.fromStartDuration(100, 50);
+    Assert.assertEquals(100, PackedRange.start(range));
+    Assert.assertEquals(150, PackedRange.end(range));
+    Assert.assertEquals(50, PackedRange.duration(range));
+    Assert.assertEquals(TimeRange.fromStartDuration(100, 50), PackedRange.toTimeRange(range));
+    Assert.assertEquals(range, PackedRange.of(TimeRange.fromStartEnd(100, 150, false)));
+  }
+
+  @Test
+  public void sortsByStartThenEnd() {
+    long[] ranges = {PackedRange.fromStartEnd(200, 210), PackedRange.fromStartEnd(100, 300),
+        PackedRange.fromStartEnd(100, 150)};
+    Arrays.sort(ranges);
+
+    Assert.assertArrayEquals(new long[] {PackedRange.fromStartEnd(100, 150),
+        PackedRange.fromStartEnd(100, 300), PackedRange.fromStartEnd(200, 210)}, ranges);
+  }
+
+  @Test
+  public void flagKeepsRangeAndSortOrder() {
+    long plain = PackedRange.fromStartEnd(100, 300);
+    long flagged = PackedRange.flagged(PackedRange.fromStartEnd(50, TimeRange.END_OF_DAY));
+
+    Assert.assertTrue(PackedRange.isFlagged(flagged));
+    Assert.assertFalse(PackedRange.isFlagged(plain));
+    Assert.assertEquals(50, PackedRange.start(flagged));
+    Assert.assertEquals(TimeRange.END_OF_DAY, PackedRange.end(PackedRange.unflagged(flagged)));
+    Assert.assertTrue(flagged < plain);
+  }
+
+  @Test
+  public void matchesTimeRange() {
+    // Compare every pair of small ranges, including empty ones, against TimeRange.
+    for (int aStart = 0; aStart < 6; aStart++) {
+      for (int aDuration = 0; aDuration < 4; aDuration++) {
+        for (int bStart = 0; bStart < 6; bStart++) {
+          for (int bDuration = 0; bDuration < 4; bDuration++) {
+            TimeRange a = TimeRange.fromStartDuration(aStart, aDuration);
+            TimeRange b = TimeRange.fromStartDuration(bStart, bDuration);
+            long packedA = PackedRange.of(a);
+            long packedB = PackedRange.of(b);
+            Assert.assertEquals(a.overlaps(b), PackedRange.overlaps(packedA, packedB));
+            Assert.assertEquals(a.contains(b), PackedRange.contains(packedA, packedB));
+            Assert.assertEquals(a.contains(bStart), PackedRange.contains(packedA, bStart));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void rangeListGrows() {
+    RangeList ranges = new RangeList(1);
+    for (int i = 0; i < 100; i++) {
+      ranges.add(i * 10, i * 10 + 5);
+    }
+
+    Assert.assertEquals(100, ranges.size());
+    Assert.assertEquals(PackedRange.fromStartEnd(990, 995), ranges.get(99));
+    Assert.assertEquals(TimeRange.fromStartEnd(0, 5, false), ranges.toTimeRanges().get(0));
+
+    ranges.clear();
+    Assert.assertTrue(ranges.isEmpty());
+  }
+}
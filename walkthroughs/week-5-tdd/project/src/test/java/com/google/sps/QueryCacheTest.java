@@ -0,0 +1,111 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryCacheTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  private CalendarStore store;
+  private QueryCache cache;
+
+  @Before
+  public void setUp() {
+    store = new CalendarStore();
+    cache = QueryCache.of(new FindMeetingQuery(), store, 2);
+  }
+
+  @Test
+  public void attendeeOrderDoesNotMatter() {
+    cache.query(new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES));
+    cache.query(new MeetingRequest(Arrays.asList(PERSON_B, PERSON_A), DURATION_30_MINUTES));
+
+    Assert.assertEquals(1, cache.getMissCount());
+    Assert.assertEquals(1, cache.getHitCount());
+    Assert.assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void changesOnlyInvalidateTheirAttendees() {
+    MeetingRequest requestA = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    MeetingRequest requestB = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES);
+    cache.query(requestA);
+    cache.query(requestB);
+
+    store.add(new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_A)));
+
+    Assert.assertEquals(1, cache.getInvalidationCount());
+    Assert.assertEquals(1, cache.size());
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true)),
+        cache.query(requestA));
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), cache.query(requestB));
+    Assert.assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  public void optionalAttendeesInvalidateToo() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    cache.query(request);
+
+    store.add(new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_B)));
+
+    Assert.assertEquals(1, cache.getInvalidationCount());
+    Assert.assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsed() {
+    MeetingRequest requestA = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    MeetingRequest requestB = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES);
+    MeetingRequest requestC = new MeetingRequest(Arrays.asList(PERSON_C), DURATION_30_MINUTES);
+    cache.query(requestA);
+    cache.query(requestB);
+    cache.query(requestA);
+    cache.query(requestC);
+
+    Assert.assertEquals(1, cache.getEvictionCount());
+    Assert.assertEquals(2, cache.size());
+
+    // B was used least recently, so A is still cached.
+    cache.query(requestA);
+    Assert.assertEquals(2, cache.getHitCount());
+
+    // Evicted entries don't count as invalidated when their attendee changes later on.
+    store.add(new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_B)));
+    Assert.assertEquals(0, cache.getInvalidationCount());
+  }
+}
@@ -0,0 +1,152 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RoomIndexTest {
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  private static final Room SMALL = new Room("Small", 2);
+  private static final Room MEDIUM = new Room("Medium", 6);
+  private static final Room LARGE = new Room("Large", 20);
+  private static final List<Room> ROOMS = Arrays.asList(LARGE, SMALL, MEDIUM);
+
+  @Test
+  public void roomsThatAreTooSmallAreLeftOut() {
+    RoomIndex rooms = RoomIndex.of(ROOMS, Collections.<Event>emptyList());
+    TimeRange slot = TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false);
+
+    Assert.assertEquals(Arrays.asList(new RoomOption(slot, Arrays.asList(MEDIUM, LARGE))),
+        rooms.roomsDuring(Arrays.asList(slot), DURATION_30_MINUTES, 3));
+    Assert.assertEquals(Arrays.asList(),
+        rooms.roomsDuring(Arrays.asList(slot), DURATION_30_MINUTES, 21));
+  }
+
+  @Test
+  public void bookedRoomsOnlyOfferTheirFreeParts() {
+    List<Event> events = Arrays.asList(
+        new Event("Booking 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_0930AM, false),
+            Arrays.asList("Medium", "Person A")),
+        new Event("Booking 2", TimeRange.fromStartDuration(TIME_1000AM, 10),
+            Arrays.asList("Large")));
+    RoomIndex rooms = RoomIndex.of(ROOMS, events);
+    TimeRange slot = TimeRange.fromStartEnd(TIME_0900AM, TIME_1100AM, false);
+
+    Assert.assertEquals(Arrays.asList(
+        new RoomOption(TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(LARGE)),
+        new RoomOption(slot, Arrays.asList(SMALL)),
+        new RoomOption(TimeRange.fromStartEnd(TIME_0930AM, TIME_1100AM, false),
+            Arrays.asList(MEDIUM)),
+        new RoomOption(TimeRange.fromStartEnd(TIME_1000AM + 10, TIME_1100AM, false),
+            Arrays.asList(LARGE))),
+        rooms.roomsDuring(Arrays.asList(slot), DURATION_30_MINUTES, 1));
+    Assert.assertFalse(rooms.isFree(MEDIUM, TimeRange.fromStartDuration(TIME_0900AM + 29, 1)));
+    Assert.assertTrue(rooms.isFree(MEDIUM, TimeRange.fromStartDuration(TIME_0930AM, 1)));
+  }
+
+  @Test
+  public void overlappingSlotsListEveryPartOnce() {
+    List<Event> events = Arrays.asList(
+        new Event("Booking", TimeRange.fromStartEnd(TIME_0930AM, TIME_1000AM, false),
+            Arrays.asList("Medium")));
+    RoomIndex rooms = RoomIndex.of(ROOMS, events);
+    // Flush-left and flush-right fragments of the same free range overlap in the middle.
+    TimeRange early = TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false);
+    TimeRange late = TimeRange.fromStartEnd(TIME_0930AM, TIME_1000AM, false);
+
+    Assert.assertEquals(Arrays.asList(
+        new RoomOption(TimeRange.fromStartEnd(TIME_0900AM, TIME_0930AM, false),
+            Arrays.asList(MEDIUM)),
+        new RoomOption(early, Arrays.asList(SMALL, LARGE)),
+        new RoomOption(late, Arrays.asList(SMALL, LARGE))),
+        rooms.roomsDuring(Arrays.asList(early, late, early), DURATION_30_MINUTES, 1));
+  }
+
+  @Test
+  public void queryWithRoomsJoinsPeopleAndRooms() {
+    List<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            Arrays.asList("Person A")),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList("Person A")),
+        new Event("Booking", TimeRange.fromStartEnd(TIME_0900AM, TIME_0930AM, false),
+            Arrays.asList("Medium")));
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Person A"), DURATION_30_MINUTES);
+    request.addOptionalAttendee("Person B");
+    request.addOptionalAttendee("Person C");
+
+    Assert.assertEquals(Arrays.asList(
+        new RoomOption(TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(LARGE)),
+        new RoomOption(TimeRange.fromStartEnd(TIME_0930AM, TIME_1000AM, false),
+            Arrays.asList(MEDIUM))),
+        new FindMeetingQuery().queryWithRooms(events, request, RoomIndex.of(ROOMS, events)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsDuplicateRooms() {
+    RoomIndex.of(Arrays.asList(SMALL, new Room("Small", 4)), Collections.<Event>emptyList());
+  }
+
+  @Test
+  public void isFreeMatchesBookings() {
+    Random random = new Random(24);
+    List<Room> rooms = new ArrayList<>();
+    List<Event> events = new ArrayList<>();
+    for (int r = 0; r < 20; r++) {
+      rooms.add(new Room("Room " + r, 1 + random.nextInt(30)));
+      for (int i = 0; i < 10; i++) {
+        int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+        int duration = Math.min(random.nextInt(90), TimeRange.WHOLE_DAY.end() - start);
+        events.add(new Event("Booking " + r + "-" + i, TimeRange.fromStartDuration(start, duration),
+            Arrays.asList("Room " + r)));
+      }
+    }
+    RoomIndex index = RoomIndex.of(rooms, events);
+
+    for (int i = 0; i < 500; i++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      TimeRange when = TimeRange.fromStartDuration(
+          start, Math.min(1 + random.nextInt(60), TimeRange.WHOLE_DAY.end() - start));
+      for (Room room : rooms) {
+        boolean expected = true;
+        for (Event event : events) {
+          if (event.getAttendees().contains(room.getName()) && event.getWhen().duration() > 0
+              && event.getWhen().overlaps(when)) {
+            expected = false;
+          }
+        }
+        Assert.assertEquals(expected, index.isFree(room, when));
+      }
+    }
+  }
+}
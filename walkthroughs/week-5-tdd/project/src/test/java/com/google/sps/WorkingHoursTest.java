@@ -0,0 +1,155 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class WorkingHoursTest {
+  private static final int TIME_0100AM = TimeRange.getTimeInMinutes(1, 0);
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0500PM = TimeRange.getTimeInMinutes(17, 0);
+
+  @Test
+  public void convertsToUtc() {
+    WorkingHours hours = new WorkingHours(TIME_0900AM, TIME_0500PM, 9 * 60);
+
+    Assert.assertArrayEquals(new int[] {0, TIME_0800AM}, hours.workingRanges());
+    Assert.assertArrayEquals(
+        new int[] {TIME_0800AM, TimeRange.WHOLE_DAY.end()}, hours.offHoursRanges());
+    Assert.assertTrue(hours.offHoursMask().isBusy(TIME_0800AM));
+    Assert.assertFalse(hours.offHoursMask().isBusy(TIME_0800AM - 1));
+  }
+
+  @Test
+  public void splitsHoursThatCrossUtcMidnight() {
+    // 9:00 to 17:00 at UTC-08:00 is 17:00 to 1:00 the next day in UTC.
+    WorkingHours hours = new WorkingHours(TIME_0900AM, TIME_0500PM, -8 * 60);
+
+    Assert.assertArrayEquals(new int[] {0, TIME_0100AM, TIME_0500PM, TimeRange.WHOLE_DAY.end()},
+        hours.workingRanges());
+    Assert.assertArrayEquals(new int[] {TIME_0100AM, TIME_0500PM}, hours.offHoursRanges());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsEmptyHours() {
+    new WorkingHours(TIME_0900AM, TIME_0900AM, 0);
+  }
+
+  @Test
+  public void rejectsInvalidHoursFromJson() {
+    // Gson skips the constructor, so the hours are only checked once the request is validated.
+    String[] invalid = {"{\"start\": 540, \"end\": 1500}", "{\"start\": 540, \"end\": 540}",
+        "{\"start\": 540, \"end\": 1020, \"utc_offset\": 900}"};
+    for (String hours : invalid) {
+      MeetingRequest request = new Gson().fromJson(
+          "{\"attendees\": [\"A\"], \"duration\": 30, \"working_hours\": {\"A\": " + hours + "}}",
+          MeetingRequest.class);
+      try {
+        request.validate();
+        Assert.fail("accepted " + hours);
+      } catch (IllegalArgumentException e) {
+        // Expected.
+      }
+    }
+  }
+
+  @Test
+  public void everyQueryMatchesOffHoursAsEvents() {
+    Random random = new Random(22);
+    String[] people = {"A", "B", "C", "D", "E"};
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 60; i++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      int duration = Math.min(random.nextInt(90), TimeRange.WHOLE_DAY.end() - start);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          Arrays.asList(people[random.nextInt(people.length)])));
+    }
+    AttendeeIndex index = AttendeeIndex.of(events);
+    PackedEventStore packed = PackedEventStore.of(events);
+    CalendarStore store = new CalendarStore(events);
+
+    for (int i = 0; i < 40; i++) {
+      MeetingRequest request = new MeetingRequest(
+          Arrays.asList(people[random.nextInt(people.length)]), 15 + random.nextInt(60));
+      request.addOptionalAttendee(people[random.nextInt(people.length)]);
+      request.addOptionalAttendee(people[random.nextInt(people.length)]);
+      for (String person : people) {
+        if (random.nextBoolean()) {
+          int start = random.nextInt(16 * 60);
+          request.setWorkingHours(person, new WorkingHours(start,
+              start + 4 * 60 + random.nextInt(4 * 60), (random.nextInt(27) - 12) * 60));
+        }
+      }
+
+      // The time outside of someone's working hours must act exactly like an event of theirs.
+      MeetingRequest plain = copyWithoutHours(request);
+      List<Event> withOffHours = new ArrayList<>(events);
+      for (Map.Entry<String, WorkingHours> entry : request.getWorkingHours().entrySet()) {
+        int[] offHours = entry.getValue().offHoursRanges();
+        for (int j = 0; j < offHours.length; j += 2) {
+          withOffHours.add(new Event("Off hours",
+              TimeRange.fromStartEnd(offHours[j], offHours[j + 1], false),
+              Arrays.asList(entry.getKey())));
+        }
+      }
+
+      for (FindMeetingQuery.Strategy strategy : FindMeetingQuery.Strategy.values()) {
+        FindMeetingQuery query = new FindMeetingQuery(strategy);
+        Collection<TimeRange> expected = query.query(withOffHours, plain);
+        Assert.assertEquals(expected, query.query(events, request));
+        Assert.assertEquals(expected, query.query(index, request));
+        Assert.assertEquals(expected, query.query(packed, request));
+        Assert.assertEquals(expected, query.query(store, request));
+
+        List<TimeRange> options = new ArrayList<>();
+        for (Iterator<TimeRange> it = query.options(index, request); it.hasNext(); ) {
+          options.add(it.next());
+        }
+        Assert.assertEquals(expected, options);
+
+        request.setMaximizeOptionalAttendees(true);
+        plain.setMaximizeOptionalAttendees(true);
+        Collection<MeetingOption> expectedCoverage = query.queryWithCoverage(withOffHours, plain);
+        Assert.assertEquals(expectedCoverage, query.queryWithCoverage(events, request));
+        Assert.assertEquals(expectedCoverage, query.queryWithCoverage(packed, request));
+        Assert.assertEquals(expectedCoverage, query.queryWithCoverage(store, request));
+        request.setMaximizeOptionalAttendees(false);
+        plain.setMaximizeOptionalAttendees(false);
+      }
+    }
+  }
+
+  private static MeetingRequest copyWithoutHours(MeetingRequest request) {
+    MeetingRequest copy = new MeetingRequest(request.getAttendees(), request.getDuration());
+    for (String attendee : request.getOptionalAttendees()) {
+      copy.addOptionalAttendee(attendee);
+    }
+    return copy;
+  }
+}